@@ -0,0 +1,48 @@
+-- Backfill of grade_aggregates from existing grades
+--
+-- The application keeps grade_aggregates up to date on every grade insert, update and
+-- delete. Run this once after deploying the table, with grading paused, to count the
+-- grades recorded before that. It is safe to re-run: existing rows are overwritten.
+
+
+INSERT INTO "grade_aggregates" ("id", "aggregate_key", "scope", "owner_id", "year", "semester",
+    "ones", "twos", "threes", "fours", "fives")
+SELECT nextval('hibernate_sequence'), a."aggregate_key", a."scope", a."owner_id", a."year", a."semester",
+    a."ones", a."twos", a."threes", a."fours", a."fives"
+FROM (
+    SELECT 'GRADE_CARD:' || gc."id" AS "aggregate_key", 'GRADE_CARD' AS "scope", gc."id" AS "owner_id",
+        l."year", l."semester",
+        count(*) FILTER (WHERE g."grade" = 1) AS "ones", count(*) FILTER (WHERE g."grade" = 2) AS "twos",
+        count(*) FILTER (WHERE g."grade" = 3) AS "threes", count(*) FILTER (WHERE g."grade" = 4) AS "fours",
+        count(*) FILTER (WHERE g."grade" = 5) AS "fives"
+    FROM "grades" g
+    JOIN "grade_cards" gc ON gc."id" = g."grade_card"
+    JOIN "lectures" l ON l."id" = gc."lecture"
+    GROUP BY gc."id", l."year", l."semester"
+
+    UNION ALL
+
+    SELECT 'STUDENT_SEMESTER:' || gc."student" || ':' || l."year" || ':' || coalesce(l."semester", 'null'),
+        'STUDENT_SEMESTER', gc."student", l."year", l."semester",
+        count(*) FILTER (WHERE g."grade" = 1), count(*) FILTER (WHERE g."grade" = 2),
+        count(*) FILTER (WHERE g."grade" = 3), count(*) FILTER (WHERE g."grade" = 4),
+        count(*) FILTER (WHERE g."grade" = 5)
+    FROM "grades" g
+    JOIN "grade_cards" gc ON gc."id" = g."grade_card"
+    JOIN "lectures" l ON l."id" = gc."lecture"
+    GROUP BY gc."student", l."year", l."semester"
+
+    UNION ALL
+
+    SELECT 'LECTURE:' || l."id", 'LECTURE', l."id", l."year", l."semester",
+        count(*) FILTER (WHERE g."grade" = 1), count(*) FILTER (WHERE g."grade" = 2),
+        count(*) FILTER (WHERE g."grade" = 3), count(*) FILTER (WHERE g."grade" = 4),
+        count(*) FILTER (WHERE g."grade" = 5)
+    FROM "grades" g
+    JOIN "grade_cards" gc ON gc."id" = g."grade_card"
+    JOIN "lectures" l ON l."id" = gc."lecture"
+    GROUP BY l."id", l."year", l."semester"
+) a
+ON CONFLICT ("aggregate_key") DO UPDATE SET
+    "ones" = excluded."ones", "twos" = excluded."twos", "threes" = excluded."threes",
+    "fours" = excluded."fours", "fives" = excluded."fives";
@@ -0,0 +1,3 @@
+-- lower-cases and trims existing usernames so that they match the normalized login lookup
+-- (run once before deploying; fails on the unique constraint if two accounts differ only in case)
+UPDATE "users" SET "username" = lower(trim("username"));
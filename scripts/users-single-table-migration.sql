@@ -0,0 +1,63 @@
+-- OPTIONAL migration plan: collapse the JOINED user hierarchy into the users table
+--
+-- Hot paths (login, token epoch checks, grade views) already read only the users table
+-- (id, username, password, role, token_epoch, user_type). The remaining polymorphic
+-- loads (profiles, updates) still join users with admins, teachers, parents and students.
+-- The steps below move the subtype columns into users so that a later switch to
+-- @Inheritance(strategy = InheritanceType.SINGLE_TABLE) with the existing user_type
+-- discriminator needs no data copy at deploy time. Run each phase separately.
+--
+-- Benchmark (run before phase 1 and after phase 3, on a copy of production data):
+--
+--   EXPLAIN (ANALYZE, BUFFERS) SELECT u.id, u.username, u.password, u.role, u.token_epoch
+--       FROM users u WHERE u.username = 'admin';
+--
+--   EXPLAIN (ANALYZE, BUFFERS) SELECT *
+--       FROM users u
+--       LEFT JOIN admins a ON a.id = u.id LEFT JOIN teachers t ON t.id = u.id
+--       LEFT JOIN parents p ON p.id = u.id LEFT JOIN students s ON s.id = u.id
+--       WHERE u.username = 'admin';
+--
+-- and compare the second plan with the single-table equivalent after phase 3:
+--
+--   EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM users u WHERE u.username = 'admin';
+
+
+-- phase 1: discriminator-first; make sure every row has a type and the role lookups are indexed
+UPDATE "users" SET "user_type" = CASE "role"
+    WHEN 'ADMIN' THEN 'AdminEntity'
+    WHEN 'TEACHER' THEN 'TeacherEntity'
+    WHEN 'PARENT' THEN 'ParentEntity'
+    WHEN 'STUDENT' THEN 'StudentEntity'
+END
+WHERE "user_type" IS NULL;
+
+CREATE INDEX IF NOT EXISTS "idx_users_user_type" ON "users"("user_type");
+
+
+-- phase 2: copy subtype columns into users (nullable, since each applies to one type only)
+ALTER TABLE "users"
+    ADD COLUMN IF NOT EXISTS "first_name" VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS "last_name" VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS "email" VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS "jmbg" VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS "school_class" INTEGER;
+
+UPDATE "users" u SET "first_name" = t."first_name", "last_name" = t."last_name", "email" = t."email"
+FROM "teachers" t WHERE t."id" = u."id";
+
+UPDATE "users" u SET "first_name" = p."first_name", "last_name" = p."last_name", "email" = p."email"
+FROM "parents" p WHERE p."id" = u."id";
+
+UPDATE "users" u SET "first_name" = s."first_name", "last_name" = s."last_name", "email" = s."email",
+    "jmbg" = s."jmbg", "school_class" = s."school_class"
+FROM "students" s WHERE s."id" = u."id";
+
+CREATE UNIQUE INDEX IF NOT EXISTS "uq_users_email" ON "users"("email") WHERE "email" IS NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS "uq_users_jmbg" ON "users"("jmbg") WHERE "jmbg" IS NOT NULL;
+
+
+-- phase 3: after deploying entities mapped with SINGLE_TABLE, repoint foreign keys to users
+-- (grade_cards.student, lectures.teacher, student_parent.*) and drop the subtype tables:
+--
+--   DROP TABLE "admins", "teachers", "parents", "students";
@@ -2,8 +2,10 @@ package rs.nikolapacekvetnic.schoolapp_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SchoolBackendApplication {
 
 	public static void main(String[] args) {
@@ -1,6 +1,10 @@
 package rs.nikolapacekvetnic.schoolapp_backend.config;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -10,6 +14,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,6 +24,10 @@ import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.ExpiringCache;
 
 public class JWTAuthorizationFilter extends OncePerRequestFilter {
 	
@@ -41,10 +50,41 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
 	
 	private String secretKey;
 	
+	/*
+	 * Kes vec verifikovanih tokena: kljuc je SHA-256 otisak tokena, a
+	 * vrednost gotov Authentication objekat. Unos istice u trenutku
+	 * isteka samog tokena (exp), tako da se potpis ne proverava iznova
+	 * pri svakom zahtevu istog klijenta.
+	 */
+	private final ExpiringCache<String, Authentication> authenticationCache;
+	
+	/*
+	 * Provera epohe tokena: token izdat pre poslednje izmene korisnika
+	 * (ili pre njegovog brisanja) se odbija iako mu potpis i rok vaze.
+	 */
+	private final TokenEpochService tokenEpochService;
+	private final Counter cacheHits;
+	private final Counter cacheMisses;
+	
 	
 	public JWTAuthorizationFilter(String secretKey) {
 		super();
-		this.secretKey = secretKey; 
+		this.secretKey = secretKey;
+		this.authenticationCache = null;
+		this.tokenEpochService = null;
+		this.cacheHits = null;
+		this.cacheMisses = null;
+	}
+	
+	
+	public JWTAuthorizationFilter(String secretKey, ExpiringCache<String, Authentication> authenticationCache,
+			TokenEpochService tokenEpochService, MeterRegistry meterRegistry) {
+		super();
+		this.secretKey = secretKey;
+		this.authenticationCache = authenticationCache;
+		this.tokenEpochService = tokenEpochService;
+		this.cacheHits = Counter.builder("jwt.authentication.cache").tag("result", "hit").register(meterRegistry);
+		this.cacheMisses = Counter.builder("jwt.authentication.cache").tag("result", "miss").register(meterRegistry);
 	}
 	
 
@@ -56,10 +96,10 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
 			
 			if (checkJWTToken(request, response)) {
 				
-				Claims claims = validateToken(request);
+				Authentication auth = authenticate(request.getHeader(HEADER).replace(PREFIX, ""));
 				
-				if (claims.get("authorities") != null) {
-					setUpSpringAuthentication(claims);
+				if (auth != null && isEpochCurrent(auth)) {
+					SecurityContextHolder.getContext().setAuthentication(auth);
 				} else {
 					SecurityContextHolder.clearContext();
 				}
@@ -74,22 +114,71 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
 			return;
 		}	
 	}
+	
+	
+	private Authentication authenticate(String jwtToken) {
+		
+		if (authenticationCache == null)
+			return setUpSpringAuthentication(validateToken(jwtToken));
+		
+		String digest = digest(jwtToken);
+		Authentication cached = authenticationCache.get(digest);
+		
+		if (cached != null) {
+			cacheHits.increment();
+			return cached;
+		}
+		
+		cacheMisses.increment();
+		
+		Claims claims = validateToken(jwtToken);
+		Authentication auth = setUpSpringAuthentication(claims);
+		
+		if (auth != null && claims.getExpiration() != null)
+			authenticationCache.put(digest, auth, claims.getExpiration().getTime());
+		
+		return auth;
+	}
+
+	
+	private boolean isEpochCurrent(Authentication auth) {
+		if (tokenEpochService == null)
+			return true;
+		
+		return tokenEpochService.isCurrent(auth.getName(), (Integer) auth.getDetails());
+	}
 
 	
-	private Claims validateToken(HttpServletRequest request) {
-		String jwtToken = request.getHeader(HEADER).replace(PREFIX, "");
+	private Claims validateToken(String jwtToken) {
 		return Jwts.parser().setSigningKey(secretKey.getBytes()).parseClaimsJws(jwtToken).getBody();
 	}
 	
 	
-	private void setUpSpringAuthentication(Claims claims) {
+	private Authentication setUpSpringAuthentication(Claims claims) {
+		
+		if (claims.get("authorities") == null)
+			return null;
 		
 		@SuppressWarnings("unchecked")
 		List<String> authorities = (List<String>) claims.get("authorities");
 		
 		UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(claims.getSubject(), null, 
 				authorities.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList()));
-		SecurityContextHolder.getContext().setAuthentication(auth);
+		
+		// epoha tokena se cuva kao details, da bi bila dostupna i kesiranom objektu
+		auth.setDetails(claims.get("epoch", Integer.class));
+		
+		return auth;
+	}
+	
+	
+	private static String digest(String jwtToken) {
+		try {
+			MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+			return Base64.getEncoder().encodeToString(sha256.digest(jwtToken.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available.", e);
+		}
 	}
 	
 	
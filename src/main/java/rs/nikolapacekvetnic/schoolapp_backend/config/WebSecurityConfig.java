@@ -1,5 +1,6 @@
 package rs.nikolapacekvetnic.schoolapp_backend.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,6 +10,10 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.ExpiringCache;
+
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(securedEnabled = true)
@@ -26,10 +31,20 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 	@Value("${spring.security.secret-key}")
 	String secretKey;
 
+	@Value("${spring.security.token-cache-size}")
+	Integer tokenCacheSize;
+
+	@Autowired
+	TokenEpochService tokenEpochService;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	@Override
 	protected void configure(HttpSecurity http) throws Exception {
 		http.cors().and().csrf().disable()
-				.addFilterAfter(new JWTAuthorizationFilter(secretKey), UsernamePasswordAuthenticationFilter.class)
+				.addFilterAfter(new JWTAuthorizationFilter(secretKey, new ExpiringCache<>(tokenCacheSize),
+						tokenEpochService, meterRegistry), UsernamePasswordAuthenticationFilter.class)
 				.authorizeRequests()
 				.antMatchers(HttpMethod.POST, "/api/v1/project/**").permitAll()
 				.anyRequest().authenticated();
@@ -1,15 +1,21 @@
 package rs.nikolapacekvetnic.schoolapp_backend.controllers;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.AdminEntity;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EExportFormat;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserDirectoryEntryDto;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.AdminService;
 
 import javax.validation.Valid;
@@ -28,15 +34,44 @@ public class AdminController {
 	}
 
 	@GetMapping("/users")
-	public ResponseEntity<?> getAllUsers() {
+	public ResponseEntity<?> getAllUsers(@RequestParam(required = false) EUserRole role,
+			@RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size) {
 		try {
-			List<UserEntity> users = adminService.getAllUsers();
+			List<UserDirectoryEntryDto> users = adminService.getUserDirectory(role, page, size);
 			return new ResponseEntity<>(users, HttpStatus.OK);
 		} catch (UnauthorizedException e) {
 			return new ResponseEntity<>(new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
 		}
 	}
 
+	@GetMapping("/users/stream")
+	public ResponseEntity<?> streamAllUsers(@RequestParam(required = false) EUserRole role) {
+		try {
+			StreamingResponseBody users = adminService.exportUserDirectory(role);
+			return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(users);
+		} catch (UnauthorizedException e) {
+			return new ResponseEntity<>(new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
+		}
+	}
+
+	@GetMapping("/grades/export")
+	public ResponseEntity<?> exportGrades(@RequestParam Integer year, @RequestParam(required = false) ESemester semester,
+			@RequestParam(defaultValue = "CSV") EExportFormat format) {
+		try {
+			StreamingResponseBody grades = adminService.exportGrades(year, semester, format);
+			boolean csv = format == EExportFormat.CSV;
+			return ResponseEntity.ok()
+					.contentType(MediaType.parseMediaType(csv ? "text/csv" : "application/x-ndjson"))
+					.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"grades-" + year
+							+ (semester == null ? "" : "-" + semester.name().toLowerCase()) + (csv ? ".csv" : ".ndjson") + "\"")
+					.body(grades);
+		} catch (UnauthorizedException e) {
+			return new ResponseEntity<>(new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
+		}
+	}
+
 	@GetMapping("/logs")
 	public ResponseEntity<?> getLogs() {
 		try {
@@ -4,18 +4,24 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeAggregateDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeService;
 
+import java.util.List;
+
 @RestController
 @RequestMapping(path = "/api/v1/project/grade")
 public class GradeController {
 
 	private final GradeService gradeService;
+	private final GradeAggregateService gradeAggregateService;
 
-	public GradeController(GradeService gradeService) {
+	public GradeController(GradeService gradeService, GradeAggregateService gradeAggregateService) {
 		this.gradeService = gradeService;
+		this.gradeAggregateService = gradeAggregateService;
 	}
 
 	@PutMapping("/update/{id}/{grade}")
@@ -37,4 +43,34 @@ public class GradeController {
 			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
 		}
 	}
+
+	@GetMapping("/aggregates/gradecard/{id}")
+	public ResponseEntity<?> getGradeCardAggregate(@PathVariable Integer id) {
+		try {
+			GradeAggregateDto aggregate = gradeAggregateService.getGradeCardAggregate(id);
+			return new ResponseEntity<>(aggregate, HttpStatus.OK);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
+		}
+	}
+
+	@GetMapping("/aggregates/student/{id}")
+	public ResponseEntity<?> getStudentAggregates(@PathVariable Integer id) {
+		try {
+			List<GradeAggregateDto> aggregates = gradeAggregateService.getStudentAggregates(id);
+			return new ResponseEntity<>(aggregates, HttpStatus.OK);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
+		}
+	}
+
+	@GetMapping("/aggregates/lecture/{id}")
+	public ResponseEntity<?> getLectureAggregate(@PathVariable Integer id) {
+		try {
+			GradeAggregateDto aggregate = gradeAggregateService.getLectureAggregate(id);
+			return new ResponseEntity<>(aggregate, HttpStatus.OK);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
+		}
+	}
 }
@@ -6,13 +6,19 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.LectureEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.EnrollmentRequestDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.EnrollmentResultDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeEntryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeResultDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.LectureRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureService;
 
 import javax.validation.Valid;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/api/v1/project/lectures")
@@ -59,6 +65,18 @@ public class LectureController {
 		}
 	}
 
+	@PutMapping("/enroll/into/{lectureId}")
+	public ResponseEntity<?> enrollStudents(@PathVariable Integer lectureId, @RequestBody EnrollmentRequestDto enrollment) {
+		try {
+			EnrollmentResultDto result = lectureService.enrollStudents(lectureId, enrollment);
+			return new ResponseEntity<>(result, HttpStatus.OK);
+		} catch (UnauthorizedException e) {
+			return new ResponseEntity<>(new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
+		}
+	}
+
 	@PutMapping("/grade/{studentId}/in/{lectureId}/with/{grade}")
 	public ResponseEntity<?> gradeStudentInLecture(
 			@PathVariable Integer studentId, @PathVariable Integer lectureId, @PathVariable Integer grade) {
@@ -70,6 +88,16 @@ public class LectureController {
 		}
 	}
 
+	@PutMapping("/grade/in/{lectureId}")
+	public ResponseEntity<?> gradeStudentsInLecture(@PathVariable Integer lectureId, @RequestBody List<GradeEntryDto> grades) {
+		try {
+			List<GradeResultDto> results = gradeService.gradeStudentsInLecture(lectureId, grades);
+			return new ResponseEntity<>(results, HttpStatus.OK);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
+		}
+	}
+
 	@PutMapping("/unregister/{subjectId}/into/{teacherId}")
 	public ResponseEntity<?> disconnectSubjectWithTeacher(@PathVariable Integer subjectId, @PathVariable Integer teacherId) {
 		try {
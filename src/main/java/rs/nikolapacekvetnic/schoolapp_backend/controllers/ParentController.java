@@ -7,8 +7,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ParentEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ChildGradeSummaryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ParentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.ParentService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
@@ -16,7 +18,6 @@ import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginServi
 import javax.validation.Valid;
 import javax.validation.ValidationException;
 import java.util.List;
-import java.util.Set;
 
 @RestController
 @RequestMapping(path = "/api/v1/project/parents")
@@ -44,11 +45,11 @@ public class ParentController {
 	}
 
 	@GetMapping("/grades")
-	public ResponseEntity<?> getGradeCards() {
+	public ResponseEntity<?> getGradeCards(GradeFilterDto filter) {
 		try {
 			String username = userLoginService.getLoggedInUsername()
 					.orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
-			List<Set<GradeCardEntity>> gradeCards = parentService.getGradeCards(username);
+			List<GradeCardViewDto> gradeCards = parentService.getGradeCards(username, filter);
 
 			return new ResponseEntity<>(gradeCards, HttpStatus.OK);
 		} catch (ResponseStatusException e) {
@@ -57,11 +58,11 @@ public class ParentController {
 	}
 
 	@GetMapping("/grades/{subjectId}")
-	public ResponseEntity<?> getGradeCardsForSubject(@PathVariable Integer subjectId) {
+	public ResponseEntity<?> getGradeCardsForSubject(@PathVariable Integer subjectId, GradeFilterDto filter) {
 		try {
 			String username = userLoginService.getLoggedInUsername()
 					.orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
-			List<GradeCardEntity> gradeCards = parentService.getGradeCardsForSubject(username, subjectId);
+			List<GradeCardViewDto> gradeCards = parentService.getGradeCardsForSubject(username, subjectId, filter);
 
 			return new ResponseEntity<>(gradeCards, HttpStatus.OK);
 		} catch (ResponseStatusException e) {
@@ -69,6 +70,19 @@ public class ParentController {
 		}
 	}
 
+	@GetMapping("/dashboard")
+	public ResponseEntity<?> getDashboard(GradeFilterDto filter) {
+		try {
+			String username = userLoginService.getLoggedInUsername()
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
+			List<ChildGradeSummaryDto> dashboard = parentService.getDashboard(username, filter);
+
+			return new ResponseEntity<>(dashboard, HttpStatus.OK);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
+		}
+	}
+
 	@PutMapping("/update/{id}")
 	public ResponseEntity<?> update(@PathVariable Integer id, @Valid @RequestBody ParentRegisterDto parentDTO, BindingResult result) {
 		try {
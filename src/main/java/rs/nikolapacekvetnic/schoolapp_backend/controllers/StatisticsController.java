@@ -0,0 +1,45 @@
+package rs.nikolapacekvetnic.schoolapp_backend.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeStatisticsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EStatisticsScope;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
+
+@RestController
+@RequestMapping(path = "/api/v1/project/statistics")
+public class StatisticsController {
+
+	private final GradeStatisticsService gradeStatisticsService;
+
+	public StatisticsController(GradeStatisticsService gradeStatisticsService) {
+		this.gradeStatisticsService = gradeStatisticsService;
+	}
+
+	@GetMapping("/lectures/{id}")
+	public ResponseEntity<?> getLectureStatistics(@PathVariable Integer id) {
+		return getStatistics(EStatisticsScope.LECTURE, id);
+	}
+
+	@GetMapping("/classes/{id}")
+	public ResponseEntity<?> getClassStatistics(@PathVariable Integer id) {
+		return getStatistics(EStatisticsScope.SCHOOL_CLASS, id);
+	}
+
+	@GetMapping("/subjects/{id}")
+	public ResponseEntity<?> getSubjectStatistics(@PathVariable Integer id) {
+		return getStatistics(EStatisticsScope.SUBJECT, id);
+	}
+
+	private ResponseEntity<?> getStatistics(EStatisticsScope scope, Integer id) {
+		try {
+			GradeStatisticsDto statistics = gradeStatisticsService.getStatistics(scope, id);
+			return new ResponseEntity<>(statistics, HttpStatus.OK);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(new RESTError(e.getStatus().value(), e.getReason()), e.getStatus());
+		}
+	}
+}
@@ -7,8 +7,9 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.StudentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.StudentService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
@@ -16,7 +17,6 @@ import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginServi
 import javax.validation.Valid;
 import javax.validation.ValidationException;
 import java.util.List;
-import java.util.Set;
 
 @RestController
 @RequestMapping(path = "/api/v1/project/student")
@@ -46,11 +46,11 @@ public class StudentController {
 
 
 	@GetMapping("/grades")
-	public ResponseEntity<?> getGradeCards() {
+	public ResponseEntity<?> getGradeCards(GradeFilterDto filter) {
 		try {
 			String username = userLoginService.getLoggedInUsername()
 					.orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
-			Set<GradeCardEntity> gradeCards = studentService.getGradeCards(username);
+			List<GradeCardViewDto> gradeCards = studentService.getGradeCards(username, filter);
 
 			return new ResponseEntity<>(gradeCards, HttpStatus.OK);
 		} catch (ResponseStatusException e) {
@@ -61,11 +61,11 @@ public class StudentController {
 	}
 
 	@GetMapping("/grades/{subjectId}")
-	public ResponseEntity<?> getGradeCardsForSubject(@PathVariable Integer subjectId) {
+	public ResponseEntity<?> getGradeCardsForSubject(@PathVariable Integer subjectId, GradeFilterDto filter) {
 		try {
 			String username = userLoginService.getLoggedInUsername()
 					.orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
-			List<GradeCardEntity> gradeCards = studentService.getGradeCardsForSubject(username, subjectId);
+			List<GradeCardViewDto> gradeCards = studentService.getGradeCardsForSubject(username, subjectId, filter);
 
 			return new ResponseEntity<>(gradeCards, HttpStatus.OK);
 		} catch (ResponseStatusException e) {
@@ -91,6 +91,16 @@ public class StudentController {
 		}
 	}
 
+	@DeleteMapping("/generation/{generation}")
+	public ResponseEntity<?> deleteGeneration(@PathVariable Integer generation) {
+		try {
+			return new ResponseEntity<>(studentService.deleteGeneration(generation), HttpStatus.OK);
+		} catch (UnauthorizedException e) {
+			return new ResponseEntity<>(
+					new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
+		}
+	}
+
 	@DeleteMapping("/{id}")
 	public ResponseEntity<?> delete(@PathVariable Integer id) {
 		try {
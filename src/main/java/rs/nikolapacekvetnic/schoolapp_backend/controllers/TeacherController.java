@@ -1,13 +1,16 @@
 package rs.nikolapacekvetnic.schoolapp_backend.controllers;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookFilterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.services.UserLoginServiceImpl;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TeacherService;
@@ -43,10 +46,35 @@ public class TeacherController {
 	}
 
 	@GetMapping("/grades")
-	public ResponseEntity<?> getGradeCards() {
-		TeacherEntity teacher = (TeacherEntity) getTeacher().getBody();
+	public ResponseEntity<?> getGradeCards(GradebookFilterDto filter) {
+		try {
+			String username = userLoginService.getLoggedInUsername()
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
+			Integer teacherId = teacherService.getTeacherId(username);
+
+			return new ResponseEntity<>(teacherService.getGradebookPage(teacherId, filter), HttpStatus.OK);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(
+					new RESTError(e.getStatus().value(), e.getReason()),
+					e.getStatus());
+		}
+	}
 
-		return new ResponseEntity<>(teacherService.getTeacherGradeCards(teacher), HttpStatus.OK);
+	@GetMapping("/grades/stream")
+	public ResponseEntity<?> streamGradeCards(GradebookFilterDto filter) {
+		try {
+			String username = userLoginService.getLoggedInUsername()
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
+			// resolved up front, so a non-teacher gets an error status rather than a broken stream
+			Integer teacherId = teacherService.getTeacherId(username);
+			StreamingResponseBody body = out -> teacherService.streamGradebook(teacherId, filter, out);
+
+			return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+		} catch (ResponseStatusException e) {
+			return new ResponseEntity<>(
+					new RESTError(e.getStatus().value(), e.getReason()),
+					e.getStatus());
+		}
 	}
 
 	@PutMapping("/update/{id}")
@@ -1,9 +1,12 @@
 package rs.nikolapacekvetnic.schoolapp_backend.controllers;
 
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserLoginDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.HashingCapacityExceededException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -29,7 +32,15 @@ public class UserLoginController {
 
 	@RequestMapping(method = RequestMethod.POST)
 	public ResponseEntity<?> login(@RequestParam String username, @RequestParam String password) {
-		Optional<UserLoginDto> userLoginDTOOptional = userLoginService.getUserLoginDto(username, password);
+		Optional<UserLoginDto> userLoginDTOOptional;
+
+		try {
+			userLoginDTOOptional = userLoginService.getUserLoginDto(username, password);
+		} catch (HashingCapacityExceededException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+					.body(new RESTError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage()));
+		}
 
 		if (userLoginDTOOptional.isPresent()) {
 			UserLoginDto userLoginDTO = userLoginDTOOptional.get();
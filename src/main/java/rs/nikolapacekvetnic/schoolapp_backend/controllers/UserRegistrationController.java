@@ -1,15 +1,21 @@
 package rs.nikolapacekvetnic.schoolapp_backend.controllers;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.DuplicateEmailException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.DuplicateJmbgException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.HashingCapacityExceededException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.RESTError;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.AdminEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ParentEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
@@ -17,6 +23,7 @@ import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ParentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.StudentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserImportResultDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserRegistrationService;
@@ -24,6 +31,7 @@ import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
 import javax.validation.Valid;
 import javax.validation.ValidationException;
+import java.io.IOException;
 
 @RestController
 @RequestMapping(path = "/api/v1/project/registration")
@@ -69,6 +77,8 @@ public class UserRegistrationController {
 					new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
 		} catch (ValidationException e) {
 			return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+		} catch (HashingCapacityExceededException e) {
+			return serviceUnavailable(e);
 		}
 	}
 	
@@ -83,6 +93,8 @@ public class UserRegistrationController {
 					new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
 		} catch (DuplicateEmailException|ValidationException e) {
 			return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+		} catch (HashingCapacityExceededException e) {
+			return serviceUnavailable(e);
 		}
 	}
 	
@@ -97,6 +109,8 @@ public class UserRegistrationController {
 					new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
 		} catch (DuplicateEmailException|ValidationException e) {
 			return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+		} catch (HashingCapacityExceededException e) {
+			return serviceUnavailable(e);
 		}
 	}
 	
@@ -111,6 +125,38 @@ public class UserRegistrationController {
 					new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
 		} catch (DuplicateJmbgException|ValidationException e) {
 			return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+		} catch (HashingCapacityExceededException e) {
+			return serviceUnavailable(e);
 		}
 	}
+	
+	
+	@RequestMapping(method = RequestMethod.POST, value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	public ResponseEntity<?> importUsers(@RequestParam EUserRole role, @RequestParam("file") MultipartFile file) {
+		try {
+			UserImportResultDto result = userRegistrationService.importUsers(role, file.getInputStream());
+			return new ResponseEntity<>(result, HttpStatus.OK);
+		} catch (UnauthorizedException e) {
+			return new ResponseEntity<>(
+					new RESTError(HttpStatus.UNAUTHORIZED.value(), e.getMessage()), HttpStatus.UNAUTHORIZED);
+		} catch (ValidationException e) {
+			return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+		} catch (IOException e) {
+			return new ResponseEntity<>(
+					new RESTError(HttpStatus.BAD_REQUEST.value(), "File could not be read."), HttpStatus.BAD_REQUEST);
+		} catch (DataIntegrityViolationException e) {
+			// a concurrent registration took one of the usernames after the uniqueness check; nothing was imported
+			return new ResponseEntity<>(
+					new RESTError(HttpStatus.CONFLICT.value(), "Import conflicts with a concurrent registration, please retry."), HttpStatus.CONFLICT);
+		} catch (HashingCapacityExceededException e) {
+			return serviceUnavailable(e);
+		}
+	}
+	
+	
+	private ResponseEntity<?> serviceUnavailable(HashingCapacityExceededException e) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+				.body(new RESTError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage()));
+	}
 }
@@ -0,0 +1,17 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ChildGradeSummaryDto {
+
+	private final Integer studentId;
+	private final String firstName;
+	private final String lastName;
+	private final List<LatestGradeDto> latestGrades;
+	private final List<SubjectAverageDto> subjectAverages;
+}
@@ -0,0 +1,22 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+public class EnrollmentRequestDto {
+
+	/*
+	 * Either a whole class, an explicit list of students, or both.
+	 */
+
+	private Integer schoolClassId;
+	private List<Integer> studentIds;
+}
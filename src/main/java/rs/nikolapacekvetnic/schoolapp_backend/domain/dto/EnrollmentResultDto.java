@@ -0,0 +1,16 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EnrollmentResultDto {
+
+	private final Integer lectureId;
+	private final Integer enrolled;
+	private final Integer alreadyEnrolled;
+	private final List<Integer> notFound;
+}
@@ -0,0 +1,45 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EGradeAggregateScope;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+
+@Getter
+@AllArgsConstructor
+public class GradeAggregateDto {
+
+	private final EGradeAggregateScope scope;
+	private final Integer ownerId;
+	private final Integer year;
+	private final ESemester semester;
+	private final Integer count;
+	private final Integer sum;
+	private final Integer min;
+	private final Integer max;
+	private final Double average;
+
+	/*
+	 * histogram[i] is the number of grades equal to i + 1. An empty
+	 * histogram gives count and sum 0 and no min, max or average.
+	 */
+	public static GradeAggregateDto of(EGradeAggregateScope scope, Integer ownerId, Integer year, ESemester semester, int[] histogram) {
+		int count = 0, sum = 0;
+		Integer min = null, max = null;
+
+		for (int i = 0; i < histogram.length; i++) {
+			if (histogram[i] <= 0)
+				continue;
+
+			int grade = i + 1;
+			count += histogram[i];
+			sum += grade * histogram[i];
+			if (min == null)
+				min = grade;
+			max = grade;
+		}
+
+		Double average = count == 0 ? null : Math.round(sum * 100.0 / count) / 100.0;
+		return new GradeAggregateDto(scope, ownerId, year, semester, count, sum, min, max, average);
+	}
+}
@@ -0,0 +1,24 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+
+@Getter
+@AllArgsConstructor
+public class GradeCardViewDto {
+
+	private final Integer id;
+	private final Integer studentId;
+	private final Integer lectureId;
+	private final Integer year;
+	private final ESemester semester;
+	private final Integer subjectId;
+	private final String subjectName;
+	private final String teacherName;
+	private final Integer present;
+	private final Integer absent;
+	private final List<GradeViewDto> grades;
+}
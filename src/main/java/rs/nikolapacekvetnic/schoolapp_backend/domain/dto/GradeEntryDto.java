@@ -0,0 +1,18 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class GradeEntryDto {
+
+	private Integer studentId;
+	private Integer grade;
+}
@@ -0,0 +1,39 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+
+@Getter
+@AllArgsConstructor
+public class GradeExportRowDto {
+
+	public static final String[] CSV_HEADER = { "gradeId", "grade", "date", "studentId", "jmbg", "firstName", "lastName",
+			"class", "section", "subject", "lectureId", "year", "semester" };
+
+	private final Integer gradeId;
+	private final Integer grade;
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+	private final LocalDate date;
+
+	private final Integer studentId;
+	private final String jmbg;
+	private final String firstName;
+	private final String lastName;
+	private final Integer classNo;
+	private final Integer sectionNo;
+	private final String subject;
+	private final Integer lectureId;
+	private final Integer year;
+	private final ESemester semester;
+
+	public Object[] toCsvValues() {
+		return new Object[] { gradeId, grade, date, studentId, jmbg, firstName, lastName,
+				classNo, sectionNo, subject, lectureId, year, semester };
+	}
+}
@@ -0,0 +1,35 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+public class GradeFilterDto {
+	
+	/*
+	 * Optional grade view filters, bound from query parameters. Every field
+	 * left null is ignored; the date range only restricts which grades are
+	 * returned, not which grade cards.
+	 */
+	
+	private Integer subjectId;
+	private Integer year;
+	private ESemester semester;
+	
+	@DateTimeFormat(pattern = "dd-MM-yyyy")
+	private LocalDate from;
+	
+	@DateTimeFormat(pattern = "dd-MM-yyyy")
+	private LocalDate to;
+}
@@ -0,0 +1,31 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class GradeResultDto {
+
+	public static final String CREATED = "CREATED";
+	public static final String REJECTED = "REJECTED";
+
+	private Integer studentId;
+	private Integer gradeId;
+	private String status;
+	private String message;
+	
+	public static GradeResultDto created(Integer studentId, Integer gradeId) {
+		return new GradeResultDto(studentId, gradeId, CREATED, null);
+	}
+	
+	public static GradeResultDto rejected(Integer studentId, String message) {
+		return new GradeResultDto(studentId, null, REJECTED, message);
+	}
+}
@@ -0,0 +1,34 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+
+@Getter
+@AllArgsConstructor
+public class GradeRowDto {
+
+	/*
+	 * One row of the flat grade-card read query: a grade card joined with
+	 * its lecture, subject and teacher, and one of its grades (gradeId is
+	 * null for a card without grades). Built directly by a JPQL constructor
+	 * expression, so no entity is loaded or lazily initialised.
+	 */
+
+	private final Integer gradeCardId;
+	private final Integer studentId;
+	private final Integer lectureId;
+	private final Integer year;
+	private final ESemester semester;
+	private final Integer subjectId;
+	private final String subjectName;
+	private final String teacherFirstName;
+	private final String teacherLastName;
+	private final Integer present;
+	private final Integer absent;
+	private final Integer gradeId;
+	private final Integer grade;
+	private final LocalDate date;
+}
@@ -0,0 +1,47 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EStatisticsScope;
+
+@Getter
+@AllArgsConstructor
+public class GradeStatisticsDto {
+
+	private final EStatisticsScope scope;
+	private final Integer ownerId;
+	private final Long gradeCount;
+	private final Long ones;
+	private final Long twos;
+	private final Long threes;
+	private final Long fours;
+	private final Long fives;
+	private final Double average;
+	private final Long gradeCardCount;
+	private final Long present;
+	private final Long absent;
+	private final Double attendanceRatio;
+
+	/*
+	 * distribution[i] is the number of grades equal to i + 1. Average and
+	 * attendance ratio are rounded to two decimals and are null when there
+	 * is nothing to divide by.
+	 */
+	public static GradeStatisticsDto of(EStatisticsScope scope, Integer ownerId, long[] distribution, long gradeCardCount, long present, long absent) {
+		long count = 0, sum = 0;
+		for (int i = 0; i < distribution.length; i++) {
+			count += distribution[i];
+			sum += (i + 1) * distribution[i];
+		}
+
+		Double average = count == 0 ? null : round(sum / (double) count);
+		Double attendanceRatio = present + absent == 0 ? null : round(present / (double) (present + absent));
+
+		return new GradeStatisticsDto(scope, ownerId, count, distribution[0], distribution[1], distribution[2], distribution[3], distribution[4],
+				average, gradeCardCount, present, absent, attendanceRatio);
+	}
+
+	private static Double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+}
@@ -0,0 +1,19 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class GradeViewDto {
+
+	private final Integer id;
+	private final Integer grade;
+	
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+	private final LocalDate date;
+}
@@ -0,0 +1,27 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+public class GradebookFilterDto {
+	
+	/*
+	 * Teacher gradebook filters and keyset cursor, bound from query
+	 * parameters. Pages are ordered by grade card id and "after" is the
+	 * id of the last grade card of the previous page.
+	 */
+	
+	private Integer lectureId;
+	private Integer year;
+	private ESemester semester;
+	private Integer after;
+	private Integer size;
+}
@@ -0,0 +1,16 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class GradebookPageDto {
+
+	private final List<GradeCardViewDto> gradeCards;
+	
+	// cursor for the next page, null when this is the last one
+	private final Integer next;
+}
@@ -0,0 +1,20 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LatestGradeDto {
+
+	private final Integer subjectId;
+	private final String subjectName;
+	private final Integer grade;
+	
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+	private final LocalDate date;
+}
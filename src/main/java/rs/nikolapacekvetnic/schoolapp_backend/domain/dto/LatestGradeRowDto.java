@@ -0,0 +1,22 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LatestGradeRowDto {
+
+	/*
+	 * One row of the latest-grades query: one of the most recent grades of
+	 * a student, with the subject it was given in.
+	 */
+
+	private final Integer studentId;
+	private final Integer subjectId;
+	private final String subjectName;
+	private final Integer grade;
+	private final LocalDate date;
+}
@@ -0,0 +1,14 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SubjectAverageDto {
+
+	private final Integer subjectId;
+	private final String subjectName;
+	private final Integer gradeCount;
+	private final Double average;
+}
@@ -0,0 +1,21 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SubjectAverageRowDto {
+
+	/*
+	 * One row of the per-subject average query: the number of grades and
+	 * their average for one student and subject, aggregated by the
+	 * database. Built directly by a JPQL constructor expression.
+	 */
+
+	private final Integer studentId;
+	private final Integer subjectId;
+	private final String subjectName;
+	private final Long gradeCount;
+	private final Double average;
+}
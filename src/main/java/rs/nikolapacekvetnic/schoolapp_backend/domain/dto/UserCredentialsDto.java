@@ -0,0 +1,26 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
+
+@Getter
+@AllArgsConstructor
+public class UserCredentialsDto {
+
+	/*
+	 * The columns of the users table needed for authentication and role
+	 * checks, read without touching any of the subtype tables.
+	 */
+
+	private final Integer id;
+	private final String username;
+	
+	@JsonIgnore
+	private final String password;
+	
+	private final EUserRole role;
+	private final Integer tokenEpoch;
+}
@@ -0,0 +1,15 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
+
+@Getter
+@AllArgsConstructor
+public class UserDirectoryEntryDto {
+
+	private final Integer id;
+	private final String username;
+	private final EUserRole role;
+	private final String displayName;
+}
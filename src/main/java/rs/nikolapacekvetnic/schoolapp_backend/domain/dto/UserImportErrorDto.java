@@ -0,0 +1,13 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserImportErrorDto {
+
+	private final Integer row;
+	private final String username;
+	private final String message;
+}
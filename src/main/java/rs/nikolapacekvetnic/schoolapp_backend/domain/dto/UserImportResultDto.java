@@ -0,0 +1,17 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
+
+@Getter
+@AllArgsConstructor
+public class UserImportResultDto {
+
+	private final EUserRole role;
+	private final Integer rows;
+	private final Integer created;
+	private final List<UserImportErrorDto> errors;
+}
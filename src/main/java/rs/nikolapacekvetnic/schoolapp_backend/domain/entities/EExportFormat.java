@@ -0,0 +1,6 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.entities;
+
+public enum EExportFormat {
+
+	CSV, NDJSON
+}
@@ -0,0 +1,6 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.entities;
+
+public enum EGradeAggregateScope {
+
+	GRADE_CARD, STUDENT_SEMESTER, LECTURE
+}
@@ -0,0 +1,72 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.entities;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+@Entity
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"))
+public class EmailOutboxEntity {
+
+	/*
+	 * One queued email. Rows are written in the same transaction as the
+	 * change that triggers them and delivered later by the outbox
+	 * dispatcher, so a mail server outage or a restart cannot lose them.
+	 */
+	
+	public static final int TEXT_LENGTH = 4000;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.AUTO)
+	@Column(name = "id")
+	private Long id;
+	
+	@Column(name = "recipient", nullable = false)
+	private String recipient;
+	
+	@Column(name = "subject", nullable = false)
+	private String subject;
+	
+	@Column(name = "text", nullable = false, length = TEXT_LENGTH)
+	private String text;
+	
+	@Column(name = "status", nullable = false)
+	@Enumerated(EnumType.STRING)
+	private EOutboxStatus status = EOutboxStatus.PENDING;
+	
+	@Column(name = "attempts", nullable = false)
+	private Integer attempts = 0;
+	
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+	
+	@Column(name = "next_attempt_at", nullable = false)
+	private LocalDateTime nextAttemptAt;
+	
+	@Column(name = "sent_at")
+	private LocalDateTime sentAt;
+	
+	@Column(name = "last_error", length = 1000)
+	private String lastError;
+	
+	public EmailObject toEmailObject() {
+		return new EmailObject(recipient, subject, text);
+	}
+}
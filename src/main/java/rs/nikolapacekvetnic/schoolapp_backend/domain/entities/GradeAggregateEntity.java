@@ -0,0 +1,79 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.entities;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeAggregateDto;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+@Entity
+@Table(name = "grade_aggregates", indexes = @Index(name = "idx_grade_aggregates_scope_owner", columnList = "scope, owner_id"))
+public class GradeAggregateEntity {
+
+	/*
+	 * Running grade statistics for one grade card, one student in one
+	 * semester or one lecture. The number of each grade (1-5) is kept
+	 * instead of a plain sum, so count, sum, min, max and average stay
+	 * exact when a grade is changed or deleted. Rows are only ever
+	 * written through GradeAggregateRepository.addToHistogram.
+	 */
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.AUTO)
+	@Column(name = "id")
+	private Long id;
+	
+	@Column(name = "aggregate_key", nullable = false, unique = true)
+	private String aggregateKey;
+	
+	@Column(name = "scope", nullable = false)
+	@Enumerated(EnumType.STRING)
+	private EGradeAggregateScope scope;
+	
+	@Column(name = "owner_id", nullable = false)
+	private Integer ownerId;
+	
+	@Column(name = "year", nullable = false)
+	private Integer year;
+	
+	@Column(name = "semester")
+	@Enumerated(EnumType.STRING)
+	private ESemester semester;
+	
+	@Column(name = "ones", nullable = false)
+	private Integer ones = 0;
+	
+	@Column(name = "twos", nullable = false)
+	private Integer twos = 0;
+	
+	@Column(name = "threes", nullable = false)
+	private Integer threes = 0;
+	
+	@Column(name = "fours", nullable = false)
+	private Integer fours = 0;
+	
+	@Column(name = "fives", nullable = false)
+	private Integer fives = 0;
+	
+	public int[] histogram() {
+		return new int[] { ones, twos, threes, fours, fives };
+	}
+	
+	public GradeAggregateDto toDto() {
+		return GradeAggregateDto.of(scope, ownerId, year, semester, histogram());
+	}
+}
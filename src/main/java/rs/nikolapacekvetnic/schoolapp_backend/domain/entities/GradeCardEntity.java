@@ -6,10 +6,13 @@ import java.util.TreeSet;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -18,6 +21,7 @@ import javax.persistence.Version;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
@@ -31,7 +35,9 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 @NoArgsConstructor
 @Entity
-@Table(name = "grade_cards")
+@Table(name = "grade_cards", indexes = {
+		@Index(name = "idx_grade_cards_student_lecture", columnList = "student, lecture"),
+		@Index(name = "idx_grade_cards_lecture", columnList = "lecture") })
 public class GradeCardEntity implements Comparable<GradeCardEntity> {
 
 	@Id
@@ -55,6 +61,20 @@ public class GradeCardEntity implements Comparable<GradeCardEntity> {
 	@JoinColumn(name = "lecture")
 	private LectureEntity lecture;
 	
+	/*
+	 * The lecture's year and semester at enrollment. They key the
+	 * student's semester aggregates, so grades are always taken back out
+	 * of the row they were added to, and they outlive the lecture itself.
+	 */
+	@JsonIgnore
+	@Column(name = "year")
+	private Integer year;
+	
+	@JsonIgnore
+	@Column(name = "semester")
+	@Enumerated(EnumType.STRING)
+	private ESemester semester;
+	
 	@JsonManagedReference
 	@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 	@ManyToOne(cascade = CascadeType.REFRESH, fetch = FetchType.LAZY)
@@ -68,6 +88,15 @@ public class GradeCardEntity implements Comparable<GradeCardEntity> {
 	@Version
 	private Integer version;
 
+	public GradeCardEntity setLecture(LectureEntity lecture) {
+		this.lecture = lecture;
+		if (lecture != null) {
+			this.year = lecture.getYear();
+			this.semester = lecture.getSemester();
+		}
+		return this;
+	}
+
 	@Override
 	public int compareTo(GradeCardEntity o) {
 		
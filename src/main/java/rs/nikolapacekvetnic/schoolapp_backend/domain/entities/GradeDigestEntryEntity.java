@@ -0,0 +1,51 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.entities;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+@NoArgsConstructor
+@Entity
+@Table(name = "grade_digest_entries", indexes = @Index(name = "idx_grade_digest_recipient", columnList = "recipient"))
+public class GradeDigestEntryEntity {
+
+	/*
+	 * A grade waiting to be reported to one parent in the next digest.
+	 * Names are copied rather than referenced so that pending entries
+	 * survive edits or deletion of the student, subject or parent.
+	 */
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.AUTO)
+	@Column(name = "id")
+	private Long id;
+	
+	@Column(name = "recipient", nullable = false)
+	private String recipient;
+	
+	@Column(name = "student_name", nullable = false)
+	private String studentName;
+	
+	@Column(name = "subject_name", nullable = false)
+	private String subjectName;
+	
+	@Column(name = "grade", nullable = false)
+	private Integer grade;
+	
+	@Column(name = "graded_on", nullable = false)
+	private LocalDate gradedOn;
+}
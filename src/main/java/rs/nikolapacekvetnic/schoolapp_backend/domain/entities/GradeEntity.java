@@ -9,6 +9,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -31,7 +32,7 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 @NoArgsConstructor
 @Entity
-@Table(name = "grades")
+@Table(name = "grades", indexes = @Index(name = "idx_grades_grade_card_date", columnList = "gradeCard, date"))
 public class GradeEntity implements Comparable<GradeEntity> {
 
 	@Id
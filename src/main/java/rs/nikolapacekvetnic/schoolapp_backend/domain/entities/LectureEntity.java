@@ -12,6 +12,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -35,7 +36,9 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 @NoArgsConstructor
 @Entity
-@Table(name = "lectures")
+@Table(name = "lectures", indexes = {
+		@Index(name = "idx_lectures_subject_year_semester", columnList = "subject, year, semester"),
+		@Index(name = "idx_lectures_teacher", columnList = "teacher") })
 public class LectureEntity {
 
 	@Id
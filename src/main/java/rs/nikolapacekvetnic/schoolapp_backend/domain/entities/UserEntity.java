@@ -1,5 +1,7 @@
 package rs.nikolapacekvetnic.schoolapp_backend.domain.entities;
 
+import java.util.Locale;
+
 import javax.persistence.Column;
 import javax.persistence.DiscriminatorColumn;
 import javax.persistence.DiscriminatorType;
@@ -9,6 +11,7 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
 import javax.persistence.Table;
@@ -30,7 +33,7 @@ import lombok.experimental.Accessors;
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
 @DiscriminatorColumn(name="user_type", discriminatorType = DiscriminatorType.STRING)
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_role_id", columnList = "role, id"))
 public class UserEntity {
 
 	@Id
@@ -55,9 +58,36 @@ public class UserEntity {
 	@Enumerated(EnumType.STRING)
 	private EUserRole role;
 
+	@JsonIgnore
+	@Column(name = "token_epoch")
+	private Integer tokenEpoch = 0;
+
 	@Version
 	private Integer version;
 	
+	/*
+	 * Usernames are stored trimmed and lower-cased so that login can
+	 * resolve an account with a single lookup on the unique (indexed)
+	 * username column, regardless of how the user typed it.
+	 */
+	public static String normalizeUsername(String username) {
+		return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
+	}
+	
+	public UserEntity setUsername(String username) {
+		this.username = normalizeUsername(username);
+		return this;
+	}
+	
+	/*
+	 * Bumping the epoch invalidates every JWT issued to this user so far;
+	 * see TokenEpochServiceImpl.
+	 */
+	public UserEntity revokeTokens() {
+		this.tokenEpoch = (tokenEpoch == null ? 0 : tokenEpoch) + 1;
+		return this;
+	}
+	
 	@Override
 	public String toString() {
 		return String.format("%d [%s] %s", id, role.toString(), username);
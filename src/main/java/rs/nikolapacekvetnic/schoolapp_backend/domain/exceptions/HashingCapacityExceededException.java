@@ -0,0 +1,15 @@
+package rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions;
+
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public HashingCapacityExceededException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,29 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EOutboxStatus;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailOutboxEntity;
+
+public interface EmailOutboxRepository extends CrudRepository<EmailOutboxEntity, Long> {
+	
+	/*
+	 * Lock timeout -2 is Hibernate's SKIP LOCKED, so several nodes can
+	 * drain the outbox at the same time without picking the same rows.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+	@Query("select e from EmailOutboxEntity e where e.status = :status and e.nextAttemptAt <= :now order by e.nextAttemptAt")
+	List<EmailOutboxEntity> findDue(@Param("status") EOutboxStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+}
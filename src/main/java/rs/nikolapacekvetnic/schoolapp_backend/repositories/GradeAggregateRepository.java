@@ -0,0 +1,88 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EGradeAggregateScope;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeAggregateEntity;
+
+public interface GradeAggregateRepository extends CrudRepository<GradeAggregateEntity, Long> {
+
+	Optional<GradeAggregateEntity> findByAggregateKey(String aggregateKey);
+
+	List<GradeAggregateEntity> findAllByScopeAndOwnerIdOrderByYearAscSemesterAsc(EGradeAggregateScope scope, Integer ownerId);
+
+	/*
+	 * Adds the given deltas to the row with the given key, creating it on
+	 * first use. The increment happens inside the database in a single
+	 * statement, so concurrent grading of the same lecture never loses an
+	 * update. The semester cast keeps a null semester typed for Postgres.
+	 */
+	@Modifying
+	@Query(value = "insert into grade_aggregates (id, aggregate_key, scope, owner_id, year, semester, ones, twos, threes, fours, fives) "
+			+ "values (nextval('hibernate_sequence'), :key, :scope, :ownerId, :year, cast(:semester as varchar), :ones, :twos, :threes, :fours, :fives) "
+			+ "on conflict (aggregate_key) do update set "
+			+ "ones = grade_aggregates.ones + excluded.ones, "
+			+ "twos = grade_aggregates.twos + excluded.twos, "
+			+ "threes = grade_aggregates.threes + excluded.threes, "
+			+ "fours = grade_aggregates.fours + excluded.fours, "
+			+ "fives = grade_aggregates.fives + excluded.fives", nativeQuery = true)
+	int addToHistogram(@Param("key") String key, @Param("scope") String scope, @Param("ownerId") Integer ownerId,
+			@Param("year") Integer year, @Param("semester") String semester,
+			@Param("ones") int ones, @Param("twos") int twos, @Param("threes") int threes, @Param("fours") int fours, @Param("fives") int fives);
+
+	/*
+	 * Takes the grades of the given students out of their lectures'
+	 * histograms with one statement; must run before the grades are deleted.
+	 */
+	@Modifying
+	@Query(value = "update grade_aggregates a set "
+			+ "ones = a.ones - d.ones, twos = a.twos - d.twos, threes = a.threes - d.threes, "
+			+ "fours = a.fours - d.fours, fives = a.fives - d.fives "
+			+ "from (select 'LECTURE:' || gc.lecture as aggregate_key, "
+			+ "count(*) filter (where g.grade = 1) as ones, count(*) filter (where g.grade = 2) as twos, "
+			+ "count(*) filter (where g.grade = 3) as threes, count(*) filter (where g.grade = 4) as fours, "
+			+ "count(*) filter (where g.grade = 5) as fives "
+			+ "from grades g join grade_cards gc on gc.id = g.grade_card "
+			+ "where gc.student in :studentIds group by gc.lecture) d "
+			+ "where a.aggregate_key = d.aggregate_key", nativeQuery = true)
+	int subtractStudentsFromLectures(@Param("studentIds") Collection<Integer> studentIds);
+
+	@Modifying
+	@Query(value = "delete from grade_aggregates where "
+			+ "(scope = 'STUDENT_SEMESTER' and owner_id in :studentIds) or "
+			+ "(scope = 'GRADE_CARD' and owner_id in (select gc.id from grade_cards gc where gc.student in :studentIds))", nativeQuery = true)
+	int deleteForStudents(@Param("studentIds") Collection<Integer> studentIds);
+
+	/*
+	 * Takes the grades given in the given lectures out of the students'
+	 * semester histograms; must run while the grade cards still point at
+	 * their lectures. The key is built from the term stored on the card,
+	 * or the lecture's for cards enrolled before it was stored.
+	 */
+	@Modifying
+	@Query(value = "update grade_aggregates a set "
+			+ "ones = a.ones - d.ones, twos = a.twos - d.twos, threes = a.threes - d.threes, "
+			+ "fours = a.fours - d.fours, fives = a.fives - d.fives "
+			+ "from (select 'STUDENT_SEMESTER:' || gc.student || ':' || coalesce(gc.year, l.year) || ':' "
+			+ "|| coalesce(case when gc.year is null then l.semester else gc.semester end, 'null') as aggregate_key, "
+			+ "count(*) filter (where g.grade = 1) as ones, count(*) filter (where g.grade = 2) as twos, "
+			+ "count(*) filter (where g.grade = 3) as threes, count(*) filter (where g.grade = 4) as fours, "
+			+ "count(*) filter (where g.grade = 5) as fives "
+			+ "from grades g join grade_cards gc on gc.id = g.grade_card join lectures l on l.id = gc.lecture "
+			+ "where l.id in :lectureIds group by aggregate_key) d "
+			+ "where a.aggregate_key = d.aggregate_key", nativeQuery = true)
+	int subtractLecturesFromStudents(@Param("lectureIds") Collection<Integer> lectureIds);
+
+	@Modifying
+	@Query(value = "delete from grade_aggregates where "
+			+ "(scope = 'LECTURE' and owner_id in :lectureIds) or "
+			+ "(scope = 'GRADE_CARD' and owner_id in (select gc.id from grade_cards gc where gc.lecture in :lectureIds))", nativeQuery = true)
+	int deleteForLectures(@Param("lectureIds") Collection<Integer> lectureIds);
+}
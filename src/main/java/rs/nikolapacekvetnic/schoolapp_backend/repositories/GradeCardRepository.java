@@ -1,14 +1,41 @@
 package rs.nikolapacekvetnic.schoolapp_backend.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.LectureEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
 
-public interface GradeCardRepository extends CrudRepository<GradeCardEntity, Integer> {
+public interface GradeCardRepository extends CrudRepository<GradeCardEntity, Integer>, GradeViewRepository, GradeStatisticsRepository {
 	
 	Optional<GradeCardEntity> findByLectureAndStudent(LectureEntity lecture, StudentEntity student);
+	
+	@Query("select distinct gc from GradeCardEntity gc join fetch gc.student s left join fetch s.parents " +
+			"where gc.lecture.id = :lectureId and s.id in :studentIds")
+	List<GradeCardEntity> findAllForGrading(@Param("lectureId") Integer lectureId, @Param("studentIds") Collection<Integer> studentIds);
+	
+	@Query("select gc.student.id from GradeCardEntity gc where gc.lecture.id = :lectureId and gc.student.id in :studentIds")
+	List<Integer> findEnrolledStudentIds(@Param("lectureId") Integer lectureId, @Param("studentIds") Collection<Integer> studentIds);
+	
+	@Modifying
+	@Query("delete from GradeCardEntity gc where gc.student.id in :studentIds")
+	int deleteAllByStudentIds(@Param("studentIds") Collection<Integer> studentIds);
+	
+	@Modifying
+	@Query("update GradeCardEntity gc set gc.lecture = null where gc.lecture.id in :lectureIds")
+	int detachFromLectures(@Param("lectureIds") Collection<Integer> lectureIds);
+	
+	// only cards whose grades are already gone, see GradeRepository.deleteOrphans
+	@Modifying
+	@Query(value = "delete from grade_cards where id in (select gc.id from grade_cards gc "
+			+ "where (gc.lecture is null or gc.student is null) "
+			+ "and not exists (select 1 from grades g where g.grade_card = gc.id) limit :limit)", nativeQuery = true)
+	int deleteOrphans(@Param("limit") int limit);
 }
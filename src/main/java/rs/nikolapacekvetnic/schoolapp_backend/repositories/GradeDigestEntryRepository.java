@@ -0,0 +1,30 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeDigestEntryEntity;
+
+public interface GradeDigestEntryRepository extends CrudRepository<GradeDigestEntryEntity, Long> {
+	
+	// SKIP LOCKED, as in EmailOutboxRepository, so two nodes never flush the same entries
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+	@Query("select e from GradeDigestEntryEntity e order by e.recipient, e.id")
+	List<GradeDigestEntryEntity> findAllForFlush(Pageable pageable);
+	
+	@Modifying
+	@Query("delete from GradeDigestEntryEntity e where e.id in :ids")
+	int deleteAllByIds(@Param("ids") Collection<Long> ids);
+}
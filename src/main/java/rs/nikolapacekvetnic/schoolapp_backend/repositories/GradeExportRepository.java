@@ -0,0 +1,11 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.function.Consumer;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeExportRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+
+public interface GradeExportRepository {
+	
+	void streamGrades(Integer year, ESemester semester, Consumer<GradeExportRowDto> consumer);
+}
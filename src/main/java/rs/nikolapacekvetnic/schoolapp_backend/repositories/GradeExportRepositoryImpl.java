@@ -0,0 +1,74 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.sql.Date;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeExportRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+
+public class GradeExportRepositoryImpl implements GradeExportRepository {
+	
+	/*
+	 * Grades of a whole school year are read as scalar rows through a
+	 * forward-only cursor, a fixed number of rows per round trip. Nothing
+	 * is attached to the persistence context, so memory use does not grow
+	 * with the number of rows.
+	 */
+	
+	private static final int STREAM_FETCH_SIZE = 1000;
+	
+	private static final String SELECT_ROWS = "select g.id, g.grade, g.date, st.id, st.jmbg, st.first_name, st.last_name, "
+			+ "c.class, c.section, sub.name, l.id, l.year, l.semester "
+			+ "from grades g "
+			+ "join grade_cards gc on gc.id = g.grade_card "
+			+ "join lectures l on l.id = gc.lecture "
+			+ "join subjects sub on sub.id = l.subject "
+			+ "join students st on st.id = gc.student "
+			+ "left join classes c on c.id = st.school_class "
+			+ "where l.year = :year";
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	@Transactional(readOnly = true)
+	public void streamGrades(Integer year, ESemester semester, Consumer<GradeExportRowDto> consumer) {
+		
+		String sql = SELECT_ROWS + (semester == null ? "" : " and l.semester = :semester") + " order by g.id";
+		
+		Query query = entityManager.createNativeQuery(sql)
+				.setParameter("year", year)
+				.setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+				.setHint(QueryHints.HINT_READONLY, true);
+		
+		if (semester != null)
+			query.setParameter("semester", semester.name());
+		
+		@SuppressWarnings("unchecked")
+		Stream<Object[]> rows = query.getResultStream();
+		
+		try {
+			rows.map(GradeExportRepositoryImpl::toRow).forEach(consumer);
+		} finally {
+			rows.close();
+		}
+	}
+	
+	private static GradeExportRowDto toRow(Object[] row) {
+		return new GradeExportRowDto(toInteger(row[0]), toInteger(row[1]), row[2] == null ? null : ((Date) row[2]).toLocalDate(),
+				toInteger(row[3]), (String) row[4], (String) row[5], (String) row[6], toInteger(row[7]), toInteger(row[8]),
+				(String) row[9], toInteger(row[10]), toInteger(row[11]), row[12] == null ? null : ESemester.valueOf((String) row[12]));
+	}
+	
+	private static Integer toInteger(Object value) {
+		return value == null ? null : ((Number) value).intValue();
+	}
+}
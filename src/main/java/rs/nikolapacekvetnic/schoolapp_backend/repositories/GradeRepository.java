@@ -1,9 +1,24 @@
 package rs.nikolapacekvetnic.schoolapp_backend.repositories;
 
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeEntity;
 
-public interface GradeRepository extends CrudRepository<GradeEntity, Integer> {
+public interface GradeRepository extends CrudRepository<GradeEntity, Integer>, GradeExportRepository {
+	
+	@Modifying
+	@Query("delete from GradeEntity g where g.gradeCard.id in "
+			+ "(select gc.id from GradeCardEntity gc where gc.student.id in :studentIds)")
+	int deleteAllByStudentIds(@Param("studentIds") Collection<Integer> studentIds);
 	
+	@Modifying
+	@Query(value = "delete from grades where id in (select g.id from grades g "
+			+ "left join grade_cards gc on gc.id = g.grade_card "
+			+ "where gc.id is null or gc.lecture is null or gc.student is null limit :limit)", nativeQuery = true)
+	int deleteOrphans(@Param("limit") int limit);
 }
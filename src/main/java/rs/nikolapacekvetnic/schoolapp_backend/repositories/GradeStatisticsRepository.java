@@ -0,0 +1,9 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeStatisticsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EStatisticsScope;
+
+public interface GradeStatisticsRepository {
+	
+	GradeStatisticsDto computeStatistics(EStatisticsScope scope, Integer ownerId);
+}
@@ -0,0 +1,64 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeStatisticsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EStatisticsScope;
+
+public class GradeStatisticsRepositoryImpl implements GradeStatisticsRepository {
+	
+	/*
+	 * Statistics are aggregated by the database: one grouped count of the
+	 * grades by value and one sum over the grade cards, whatever the number
+	 * of students or grades in the lecture, class or subject.
+	 */
+	
+	private static final String FROM_GRADE_CARDS = " from GradeCardEntity gc join gc.lecture l join gc.student st";
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	@Transactional(readOnly = true)
+	public GradeStatisticsDto computeStatistics(EStatisticsScope scope, Integer ownerId) {
+		String where = " where " + ownerPath(scope) + " = :ownerId";
+		
+		List<Object[]> distributionRows = entityManager.createQuery(
+				"select g.grade, count(g)" + FROM_GRADE_CARDS + " join gc.grades g" + where + " group by g.grade", Object[].class)
+				.setParameter("ownerId", ownerId)
+				.getResultList();
+		
+		long[] distribution = new long[5];
+		for (Object[] row : distributionRows) {
+			int grade = (Integer) row[0];
+			if (0 < grade && grade <= distribution.length)
+				distribution[grade - 1] = (Long) row[1];
+		}
+		
+		Object[] attendance = entityManager.createQuery(
+				"select count(gc), coalesce(sum(gc.present), 0), coalesce(sum(gc.absent), 0)" + FROM_GRADE_CARDS + where, Object[].class)
+				.setParameter("ownerId", ownerId)
+				.getSingleResult();
+		
+		return GradeStatisticsDto.of(scope, ownerId, distribution,
+				((Number) attendance[0]).longValue(), ((Number) attendance[1]).longValue(), ((Number) attendance[2]).longValue());
+	}
+	
+	private static String ownerPath(EStatisticsScope scope) {
+		switch (scope) {
+			case LECTURE:
+				return "l.id";
+			case SCHOOL_CLASS:
+				return "st.schoolClass.id";
+			case SUBJECT:
+				return "l.subject.id";
+			default:
+				throw new IllegalArgumentException("Unknown statistics scope " + scope);
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.LatestGradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SubjectAverageRowDto;
+
+public interface GradeViewRepository {
+	
+	List<GradeRowDto> findGradeRows(Integer studentId, GradeFilterDto filter);
+	
+	List<GradeRowDto> findGradeRows(Collection<Integer> studentIds, GradeFilterDto filter);
+	
+	List<SubjectAverageRowDto> findSubjectAverages(Collection<Integer> studentIds, GradeFilterDto filter);
+	
+	List<LatestGradeRowDto> findLatestGrades(Collection<Integer> studentIds, GradeFilterDto filter, int limit);
+	
+	List<GradeRowDto> findGradeRowsByGradeCardIds(Collection<Integer> gradeCardIds);
+	
+	List<Integer> findTeacherGradeCardIds(Integer teacherId, GradebookFilterDto filter, int limit);
+}
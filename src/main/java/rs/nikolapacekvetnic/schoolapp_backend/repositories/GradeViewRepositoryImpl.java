@@ -0,0 +1,246 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.sql.Date;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.LatestGradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SubjectAverageRowDto;
+
+public class GradeViewRepositoryImpl implements GradeViewRepository {
+	
+	/*
+	 * Grade views are read as flat rows in a single statement (grade card,
+	 * lecture, subject, teacher and grades joined) and grouped in memory,
+	 * instead of serializing the lazy entity graph one association at a
+	 * time. Filters are appended to the where clause (or, for the date
+	 * range, to the grade join) so only the requested rows are read.
+	 */
+	
+	private static final String SELECT_ROWS = "select new rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeRowDto("
+			+ "gc.id, gc.student.id, l.id, l.year, l.semester, s.id, s.name, t.firstName, t.lastName, "
+			+ "gc.present, gc.absent, g.id, g.grade, g.date) "
+			+ "from GradeCardEntity gc join gc.lecture l join l.subject s left join l.teacher t left join gc.grades g";
+	
+	private static final String SELECT_SUBJECT_AVERAGES = "select new rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SubjectAverageRowDto("
+			+ "gc.student.id, s.id, s.name, count(g.id), avg(g.grade)) "
+			+ "from GradeCardEntity gc join gc.lecture l join l.subject s join gc.grades g "
+			+ "where gc.student.id in :studentIds";
+	
+	/*
+	 * row_number() keeps only the newest grades of each student, so the
+	 * number of rows read does not grow with a student's grade history.
+	 */
+	private static final String SELECT_LATEST_GRADES = "select gc.student, s.id as subject_id, s.name, g.grade, g.date, "
+			+ "row_number() over (partition by gc.student order by g.date desc, g.id desc) as position "
+			+ "from grades g join grade_cards gc on gc.id = g.grade_card join lectures l on l.id = gc.lecture "
+			+ "join subjects s on s.id = l.subject where gc.student in :studentIds";
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<GradeRowDto> findGradeRows(Integer studentId, GradeFilterDto filter) {
+		return findGradeRows(Collections.singletonList(studentId), filter);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<GradeRowDto> findGradeRows(Collection<Integer> studentIds, GradeFilterDto filter) {
+		
+		if (studentIds.isEmpty())
+			return Collections.emptyList();
+		
+		if (filter == null)
+			filter = new GradeFilterDto();
+		
+		StringBuilder jpql = new StringBuilder(SELECT_ROWS);
+		Map<String, Object> parameters = new HashMap<>();
+		
+		if (filter.getFrom() != null || filter.getTo() != null) {
+			jpql.append(" on ");
+			
+			if (filter.getFrom() != null) {
+				jpql.append("g.date >= :from");
+				parameters.put("from", filter.getFrom());
+			}
+			
+			if (filter.getTo() != null) {
+				jpql.append(filter.getFrom() != null ? " and " : "").append("g.date <= :to");
+				parameters.put("to", filter.getTo());
+			}
+		}
+		
+		jpql.append(" where gc.student.id in :studentIds");
+		parameters.put("studentIds", studentIds);
+		
+		appendLectureFilter(jpql, parameters, filter);
+		
+		jpql.append(" order by gc.student.id, s.name, l.year, gc.id, g.date, g.id");
+		
+		TypedQuery<GradeRowDto> query = entityManager.createQuery(jpql.toString(), GradeRowDto.class);
+		parameters.forEach(query::setParameter);
+		
+		return query.getResultList();
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<SubjectAverageRowDto> findSubjectAverages(Collection<Integer> studentIds, GradeFilterDto filter) {
+		
+		if (studentIds.isEmpty())
+			return Collections.emptyList();
+		
+		StringBuilder jpql = new StringBuilder(SELECT_SUBJECT_AVERAGES);
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("studentIds", studentIds);
+		
+		appendGradeFilter(jpql, parameters, filter);
+		
+		jpql.append(" group by gc.student.id, s.id, s.name order by gc.student.id, s.name, s.id");
+		
+		TypedQuery<SubjectAverageRowDto> query = entityManager.createQuery(jpql.toString(), SubjectAverageRowDto.class);
+		parameters.forEach(query::setParameter);
+		
+		return query.getResultList();
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<LatestGradeRowDto> findLatestGrades(Collection<Integer> studentIds, GradeFilterDto filter, int limit) {
+		
+		if (studentIds.isEmpty())
+			return Collections.emptyList();
+		
+		StringBuilder sql = new StringBuilder(SELECT_LATEST_GRADES);
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("studentIds", studentIds);
+		
+		appendGradeFilter(sql, parameters, filter);
+		
+		// the semester column holds the enum name
+		parameters.computeIfPresent("semester", (name, semester) -> ((Enum<?>) semester).name());
+		
+		Query query = entityManager.createNativeQuery("select * from (" + sql + ") latest where position <= :limit order by student, position")
+				.setParameter("limit", limit);
+		parameters.forEach(query::setParameter);
+		
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = query.getResultList();
+		
+		return rows.stream()
+				.map(GradeViewRepositoryImpl::toLatestGrade)
+				.collect(Collectors.toList());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<GradeRowDto> findGradeRowsByGradeCardIds(Collection<Integer> gradeCardIds) {
+		
+		if (gradeCardIds.isEmpty())
+			return Collections.emptyList();
+		
+		return entityManager.createQuery(SELECT_ROWS + " where gc.id in :gradeCardIds order by gc.id, g.date, g.id", GradeRowDto.class)
+				.setParameter("gradeCardIds", gradeCardIds)
+				.getResultList();
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Integer> findTeacherGradeCardIds(Integer teacherId, GradebookFilterDto filter, int limit) {
+		
+		/*
+		 * Keyset page: only ids are read here, ordered by the primary key and
+		 * starting after the cursor, so the cost of a page does not grow with
+		 * its position in the teacher's history.
+		 */
+		StringBuilder jpql = new StringBuilder("select gc.id from GradeCardEntity gc join gc.lecture l where l.teacher.id = :teacherId");
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("teacherId", teacherId);
+		
+		if (filter.getAfter() != null) {
+			jpql.append(" and gc.id > :after");
+			parameters.put("after", filter.getAfter());
+		}
+		
+		if (filter.getLectureId() != null) {
+			jpql.append(" and l.id = :lectureId");
+			parameters.put("lectureId", filter.getLectureId());
+		}
+		
+		if (filter.getYear() != null) {
+			jpql.append(" and l.year = :year");
+			parameters.put("year", filter.getYear());
+		}
+		
+		if (filter.getSemester() != null) {
+			jpql.append(" and l.semester = :semester");
+			parameters.put("semester", filter.getSemester());
+		}
+		
+		jpql.append(" order by gc.id");
+		
+		TypedQuery<Integer> query = entityManager.createQuery(jpql.toString(), Integer.class).setMaxResults(limit);
+		parameters.forEach(query::setParameter);
+		
+		return query.getResultList();
+	}
+	
+	// the date range and the lecture filter, for queries that join grades directly
+	private static void appendGradeFilter(StringBuilder query, Map<String, Object> parameters, GradeFilterDto filter) {
+		
+		if (filter == null)
+			return;
+		
+		if (filter.getFrom() != null) {
+			query.append(" and g.date >= :from");
+			parameters.put("from", filter.getFrom());
+		}
+		
+		if (filter.getTo() != null) {
+			query.append(" and g.date <= :to");
+			parameters.put("to", filter.getTo());
+		}
+		
+		appendLectureFilter(query, parameters, filter);
+	}
+	
+	// the aliases s and l are the same in the JPQL and the native queries
+	private static void appendLectureFilter(StringBuilder query, Map<String, Object> parameters, GradeFilterDto filter) {
+		
+		if (filter.getSubjectId() != null) {
+			query.append(" and s.id = :subjectId");
+			parameters.put("subjectId", filter.getSubjectId());
+		}
+		
+		if (filter.getYear() != null) {
+			query.append(" and l.year = :year");
+			parameters.put("year", filter.getYear());
+		}
+		
+		if (filter.getSemester() != null) {
+			query.append(" and l.semester = :semester");
+			parameters.put("semester", filter.getSemester());
+		}
+	}
+	
+	private static LatestGradeRowDto toLatestGrade(Object[] row) {
+		return new LatestGradeRowDto(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), (String) row[2],
+				((Number) row[3]).intValue(), ((Date) row[4]).toLocalDate());
+	}
+}
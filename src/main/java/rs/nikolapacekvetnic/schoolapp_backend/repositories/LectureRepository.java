@@ -1,8 +1,13 @@
 package rs.nikolapacekvetnic.schoolapp_backend.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.LectureEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.SubjectEntity;
@@ -11,4 +16,14 @@ import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
 public interface LectureRepository extends CrudRepository<LectureEntity, Integer> {
 	
 	Optional<LectureEntity> findBySubjectAndTeacher(SubjectEntity subject, TeacherEntity teacher);
+	
+	@Query("select l.id from LectureEntity l where l.subject.id = :subjectId")
+	List<Integer> findIdsBySubjectId(@Param("subjectId") Integer subjectId);
+	
+	@Query("select l.id from LectureEntity l where l.teacher.id = :teacherId")
+	List<Integer> findIdsByTeacherId(@Param("teacherId") Integer teacherId);
+	
+	@Modifying
+	@Query("delete from LectureEntity l where l.id in :ids")
+	int deleteAllByIds(@Param("ids") Collection<Integer> ids);
 }
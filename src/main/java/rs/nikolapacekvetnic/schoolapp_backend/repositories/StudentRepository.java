@@ -1,12 +1,47 @@
 package rs.nikolapacekvetnic.schoolapp_backend.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
 
 public interface StudentRepository extends CrudRepository<StudentEntity, Integer> {
 	
 	Optional<StudentEntity> findByJmbg(String jmbg);
+	
+	@Query(value = "select s.jmbg from students s where s.jmbg in :jmbgs", nativeQuery = true)
+	List<String> findExistingJmbgs(@Param("jmbgs") Collection<String> jmbgs);
+	
+	@Query("select s from StudentEntity s where s.schoolClass.id = :schoolClassId")
+	List<StudentEntity> findAllBySchoolClassId(@Param("schoolClassId") Integer schoolClassId);
+	
+	@Query("select distinct s from StudentEntity s left join fetch s.parents where s.id in :ids")
+	List<StudentEntity> findAllWithParents(@Param("ids") Collection<Integer> ids);
+	
+	@Query("select s.id from StudentEntity s join s.parents p where p.id = :parentId")
+	List<Integer> findIdsByParentId(@Param("parentId") Integer parentId);
+	
+	@Query("select s from StudentEntity s join s.parents p where p.id = :parentId")
+	List<StudentEntity> findAllByParentId(@Param("parentId") Integer parentId);
+	
+	@Query(value = "select s.id from students s join classes c on c.id = s.school_class where c.generation = :generation", nativeQuery = true)
+	List<Integer> findIdsByGeneration(@Param("generation") Integer generation);
+	
+	@Modifying
+	@Query(value = "delete from student_parent where student_id in :studentIds", nativeQuery = true)
+	int deleteParentLinks(@Param("studentIds") Collection<Integer> studentIds);
+	
+	// the matching users rows are removed separately, see UserRepository.deleteAllByIds
+	@Modifying
+	@Query(value = "delete from students where id in :studentIds", nativeQuery = true)
+	int deleteStudentRows(@Param("studentIds") Collection<Integer> studentIds);
+	
+	@Query("select case when count(p) > 0 then true else false end from StudentEntity s join s.parents p where s.id = :studentId and p.id = :parentId")
+	boolean isChildOf(@Param("studentId") Integer studentId, @Param("parentId") Integer parentId);
 }
@@ -1,12 +1,19 @@
 package rs.nikolapacekvetnic.schoolapp_backend.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
 
 public interface TeacherRepository extends CrudRepository<TeacherEntity, Integer> {
 	
 	Optional<TeacherEntity> findByEmail(String email);
+	
+	@Query(value = "select e.email from teachers e where e.email in :emails", nativeQuery = true)
+	List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,10 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.Optional;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
+
+public interface UserCredentialsRepository {
+	
+	Optional<UserCredentialsDto> findCredentialsByUsername(String username);
+}
@@ -0,0 +1,42 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
+
+public class UserCredentialsRepositoryImpl implements UserCredentialsRepository {
+	
+	/*
+	 * Plain SQL on purpose: any JPQL query rooted at UserEntity is rendered
+	 * with outer joins to all four subtype tables of the JOINED hierarchy,
+	 * while everything authentication needs lives in the users table.
+	 */
+	
+	private static final String SELECT_CREDENTIALS = "select u.id, u.username, u.password, u.role, coalesce(u.token_epoch, 0) "
+			+ "from users u where u.username = :username";
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	public Optional<UserCredentialsDto> findCredentialsByUsername(String username) {
+		
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = entityManager.createNativeQuery(SELECT_CREDENTIALS)
+				.setParameter("username", username)
+				.getResultList();
+		
+		if (rows.isEmpty())
+			return Optional.empty();
+		
+		Object[] row = rows.get(0);
+		
+		return Optional.of(new UserCredentialsDto(((Number) row[0]).intValue(), (String) row[1], (String) row[2],
+				row[3] == null ? null : EUserRole.valueOf((String) row[3]), ((Number) row[4]).intValue()));
+	}
+}
@@ -0,0 +1,14 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserDirectoryEntryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
+
+public interface UserDirectoryRepository {
+	
+	List<UserDirectoryEntryDto> findDirectoryPage(EUserRole role, int page, int size);
+	
+	void streamDirectory(EUserRole role, Consumer<UserDirectoryEntryDto> consumer);
+}
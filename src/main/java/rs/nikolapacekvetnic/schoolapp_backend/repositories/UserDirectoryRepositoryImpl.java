@@ -0,0 +1,119 @@
+package rs.nikolapacekvetnic.schoolapp_backend.repositories;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserDirectoryEntryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
+
+public class UserDirectoryRepositoryImpl implements UserDirectoryRepository {
+	
+	/*
+	 * The directory is read with plain SQL over the users table, joined by
+	 * primary key only to the subtype tables that carry a name (all three,
+	 * or just the one matching the role filter), instead of loading the
+	 * JOINED hierarchy as entities. Admins have no name and fall back to
+	 * their username.
+	 */
+	
+	private static final int STREAM_FETCH_SIZE = 500;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	public List<UserDirectoryEntryDto> findDirectoryPage(EUserRole role, int page, int size) {
+		
+		Query query = createQuery(role, " limit :size offset :offset")
+				.setParameter("size", size)
+				.setParameter("offset", page * size);
+		
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = query.getResultList();
+		
+		return rows.stream()
+				.map(UserDirectoryRepositoryImpl::toEntry)
+				.collect(Collectors.toList());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public void streamDirectory(EUserRole role, Consumer<UserDirectoryEntryDto> consumer) {
+		
+		/*
+		 * A read-only transaction keeps the connection out of autocommit, so
+		 * the driver reads the result through a cursor, one fetch at a time.
+		 */
+		Query query = createQuery(role, "")
+				.setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+				.setHint(QueryHints.HINT_READONLY, true);
+		
+		@SuppressWarnings("unchecked")
+		Stream<Object[]> rows = query.getResultStream();
+		
+		try {
+			rows.map(UserDirectoryRepositoryImpl::toEntry).forEach(consumer);
+		} finally {
+			rows.close();
+		}
+	}
+	
+	private Query createQuery(EUserRole role, String suffix) {
+		
+		StringBuilder sql = new StringBuilder("select u.id, u.username, u.role, ");
+		
+		if (role == null) {
+			sql.append("coalesce(t.first_name, p.first_name, s.first_name), coalesce(t.last_name, p.last_name, s.last_name) from users u ")
+					.append("left join teachers t on t.id = u.id left join parents p on p.id = u.id left join students s on s.id = u.id");
+		} else if (role == EUserRole.ADMIN) {
+			sql.append("null, null from users u");
+		} else {
+			sql.append("n.first_name, n.last_name from users u join ").append(nameTable(role)).append(" n on n.id = u.id");
+		}
+		
+		if (role != null)
+			sql.append(" where u.role = :role");
+		
+		sql.append(" order by u.id").append(suffix);
+		
+		Query query = entityManager.createNativeQuery(sql.toString());
+		
+		if (role != null)
+			query.setParameter("role", role.name());
+		
+		return query;
+	}
+	
+	private static String nameTable(EUserRole role) {
+		switch (role) {
+			case TEACHER: return "teachers";
+			case PARENT: return "parents";
+			default: return "students";
+		}
+	}
+	
+	private static UserDirectoryEntryDto toEntry(Object[] row) {
+		
+		String username = (String) row[1];
+		String firstName = (String) row[3];
+		String lastName = (String) row[4];
+		String displayName = Stream.of(firstName, lastName)
+				.filter(Objects::nonNull)
+				.map(String::trim)
+				.filter(name -> !name.isEmpty())
+				.collect(Collectors.joining(" "));
+		
+		return new UserDirectoryEntryDto(((Number) row[0]).intValue(), username,
+				row[2] == null ? null : EUserRole.valueOf((String) row[2]), displayName.isEmpty() ? username : displayName);
+	}
+}
@@ -1,12 +1,28 @@
 package rs.nikolapacekvetnic.schoolapp_backend.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
 
-public interface UserRepository extends CrudRepository<UserEntity, Integer> {
+public interface UserRepository extends CrudRepository<UserEntity, Integer>, UserDirectoryRepository, UserCredentialsRepository {
 	
 	Optional<UserEntity> findByUsername(String username);
+	
+	@Query(value = "select coalesce(u.token_epoch, 0) from users u where u.username = :username", nativeQuery = true)
+	Optional<Integer> findTokenEpochByUsername(@Param("username") String username);
+	
+	@Query(value = "select u.username from users u where u.username in :usernames", nativeQuery = true)
+	List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+	
+	// bulk deletes bypass the persistence context, so it is cleared to drop the removed entities
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = "delete from users where id in :ids", nativeQuery = true)
+	int deleteAllByIds(@Param("ids") Collection<Integer> ids);
 }
@@ -1,55 +1,141 @@
 package rs.nikolapacekvetnic.schoolapp_backend.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.AdminEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EExportFormat;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeExportRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserDirectoryEntryDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.AdminRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.AdminService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.CsvUtil;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
 import javax.validation.ValidationException;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class AdminServiceImpl implements AdminService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final AdminRepository adminRepository;
     private final UserRepository userRepository;
+    private final GradeRepository gradeRepository;
     private final UserLoginService userLoginService;
     private final UserCustomValidator userValidator;
+    private final ObjectMapper objectMapper;
+    private final TokenEpochService tokenEpochService;
 
     @Autowired
-    public AdminServiceImpl(AdminRepository adminRepository, UserRepository userRepository, UserLoginService userLoginService, UserCustomValidator userValidator) {
+    public AdminServiceImpl(AdminRepository adminRepository, UserRepository userRepository, GradeRepository gradeRepository, UserLoginService userLoginService, UserCustomValidator userValidator, ObjectMapper objectMapper, TokenEpochService tokenEpochService) {
         this.adminRepository = adminRepository;
         this.userRepository = userRepository;
+        this.gradeRepository = gradeRepository;
         this.userLoginService = userLoginService;
         this.userValidator = userValidator;
+        this.objectMapper = objectMapper;
+        this.tokenEpochService = tokenEpochService;
     }
 
     @Override
-    public List<UserEntity> getAllUsers() {
+    @Transactional(readOnly = true)
+    public List<UserDirectoryEntryDto> getUserDirectory(EUserRole role, Integer page, Integer size) {
         ensureRoleIsAdmin();
         logger.info(userLoginService.getLoggedInUsername() + " : viewed all users.");
 
-        return (List<UserEntity>) userRepository.findAll();
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return userRepository.findDirectoryPage(role, page == null ? 0 : Math.max(0, page), pageSize);
+    }
+
+    @Override
+    public StreamingResponseBody exportUserDirectory(EUserRole role) {
+        ensureRoleIsAdmin();
+        logger.info(userLoginService.getLoggedInUsername() + " : exported all users.");
+
+        // authorization is checked here, on the request thread; the body itself is written asynchronously
+        return out -> {
+            try {
+                userRepository.streamDirectory(role, entry -> writeLine(out, entry));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+    }
+
+    @Override
+    public StreamingResponseBody exportGrades(Integer year, ESemester semester, EExportFormat format) {
+        ensureRoleIsAdmin();
+
+        if (year == null)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Year must be provided.");
+
+        logger.info(userLoginService.getLoggedInUsername() + " : exported grades for " + year + (semester == null ? "" : " " + semester));
+
+        /*
+         * Each row is written as soon as the cursor yields it; the buffer
+         * only batches small writes to the response and holds no rows.
+         */
+        return out -> {
+            BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            try {
+                if (format == EExportFormat.NDJSON) {
+                    gradeRepository.streamGrades(year, semester, row -> writeLine(buffered, row));
+                } else {
+                    buffered.write(CsvUtil.toLine((Object[]) GradeExportRowDto.CSV_HEADER).getBytes(StandardCharsets.UTF_8));
+                    gradeRepository.streamGrades(year, semester, row -> writeCsvLine(buffered, row));
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            buffered.flush();
+        };
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvLine(OutputStream out, GradeExportRowDto row) {
+        try {
+            out.write(CsvUtil.toLine(row.toCsvValues()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Override
@@ -74,6 +160,7 @@ public class AdminServiceImpl implements AdminService {
     }
 
     @Override
+    @Transactional
     public AdminEntity updateAdmin(Integer id, AdminRegisterDto adminDTO, BindingResult result) {
         ensureRoleIsAdmin();
 
@@ -89,17 +176,19 @@ public class AdminServiceImpl implements AdminService {
         AdminEntity admin = adminRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Admin not found."));
 
+        String previousUsername = admin.getUsername();
+
         admin.setUsername(adminDTO.getUsername());
+        tokenEpochService.revokeTokens(admin, previousUsername);
         admin.setPassword(adminDTO.getPassword());
 
-        adminRepository.save(admin);
-
         logger.info(userLoginService.getLoggedInUsername() + " : updated admin " + admin.getUsername());
 
         return admin;
     }
 
     @Override
+    @Transactional
     public void deleteAdmin(Integer id) {
         ensureRoleIsAdmin();
 
@@ -0,0 +1,149 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailObject;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.BulkMailService;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class BulkMailServiceImpl implements BulkMailService {
+
+    /*
+     * JavaMailSender opens one SMTP connection (and TLS session) per send()
+     * call, however many messages are passed to it. Messages are therefore
+     * grouped by recipient domain and sent in chunks, each chunk over one
+     * connection, on a small worker pool. A per-domain semaphore caps how
+     * many connections are open to the same mail provider at once.
+     */
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final JavaMailSender mailSender;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int perDomainConcurrency;
+    private final Map<String, Semaphore> domainPermits = new ConcurrentHashMap<>();
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer chunkTimer;
+
+    public BulkMailServiceImpl(JavaMailSender mailSender,
+                               @Value("${spring.mail.bulk.threads}") int threads,
+                               @Value("${spring.mail.bulk.chunk-size}") int chunkSize,
+                               @Value("${spring.mail.bulk.per-domain-concurrency}") int perDomainConcurrency,
+                               MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.chunkSize = chunkSize;
+        this.perDomainConcurrency = perDomainConcurrency;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "bulk-mail-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sentCounter = Counter.builder("mail.bulk.messages").tag("result", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.bulk.messages").tag("result", "failed").register(meterRegistry);
+        this.chunkTimer = Timer.builder("mail.bulk.chunk.latency").register(meterRegistry);
+    }
+
+    @Override
+    public Map<EmailObject, Exception> sendAll(List<EmailObject> objects) {
+        Map<String, List<EmailObject>> byDomain = new HashMap<>();
+        for (EmailObject object : objects)
+            byDomain.computeIfAbsent(domainOf(object.getTo()), d -> new ArrayList<>()).add(object);
+
+        List<Future<Map<EmailObject, Exception>>> chunks = new ArrayList<>();
+        byDomain.forEach((domain, messages) -> {
+            for (int from = 0; from < messages.size(); from += chunkSize) {
+                List<EmailObject> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+                chunks.add(executor.submit(() -> sendChunk(domain, chunk)));
+            }
+        });
+
+        Map<EmailObject, Exception> failures = new IdentityHashMap<>();
+        for (Future<Map<EmailObject, Exception>> chunk : chunks) {
+            try {
+                failures.putAll(chunk.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending bulk mail.", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Bulk mail chunk failed.", e.getCause());
+            }
+        }
+
+        return failures;
+    }
+
+    private Map<EmailObject, Exception> sendChunk(String domain, List<EmailObject> chunk) throws InterruptedException {
+        Semaphore permits = domainPermits.computeIfAbsent(domain, d -> new Semaphore(perDomainConcurrency));
+        permits.acquire();
+
+        try {
+            Map<EmailObject, Exception> failures = chunkTimer.record(() -> send(chunk));
+            sentCounter.increment(chunk.size() - failures.size());
+            failedCounter.increment(failures.size());
+            return failures;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Map<EmailObject, Exception> send(List<EmailObject> chunk) {
+        Map<SimpleMailMessage, EmailObject> messages = new IdentityHashMap<>();
+        for (EmailObject object : chunk) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(object.getTo());
+            message.setSubject(object.getSubject());
+            message.setText(object.getText());
+            messages.put(message, object);
+        }
+
+        Map<EmailObject, Exception> failures = new IdentityHashMap<>();
+
+        try {
+            mailSender.send(messages.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            // failed messages are keyed by the SimpleMailMessage instances passed in
+            e.getFailedMessages().forEach((message, cause) -> {
+                EmailObject object = messages.get(message);
+                if (object != null)
+                    failures.put(object, cause);
+            });
+            if (failures.isEmpty())
+                chunk.forEach(object -> failures.put(object, e));
+        } catch (MailException e) {
+            logger.warn("Bulk mail : chunk of " + chunk.size() + " failed: " + e.getMessage());
+            chunk.forEach(object -> failures.put(object, e));
+        }
+
+        return failures;
+    }
+
+    private static String domainOf(String address) {
+        int at = address == null ? -1 : address.lastIndexOf('@');
+        return at < 0 ? "" : address.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
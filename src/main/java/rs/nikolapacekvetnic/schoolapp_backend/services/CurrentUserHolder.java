@@ -0,0 +1,40 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@RequestScope
+public class CurrentUserHolder {
+
+    /*
+     * Loading a user is a polymorphic query joining users with every
+     * subtype table, so within one HTTP request each username is resolved
+     * at most once and the entity is shared by all services that need it.
+     * Callers that only need the id and role use the credentials instead,
+     * which are read from the users table alone.
+     */
+
+    private final UserRepository userRepository;
+    private final Map<String, Optional<UserEntity>> users = new HashMap<>();
+    private final Map<String, Optional<UserCredentialsDto>> credentials = new HashMap<>();
+
+    public CurrentUserHolder(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Optional<UserEntity> findByUsername(String username) {
+        return users.computeIfAbsent(username, userRepository::findByUsername);
+    }
+
+    public Optional<UserCredentialsDto> findCredentials(String username) {
+        return credentials.computeIfAbsent(username, userRepository::findCredentialsByUsername);
+    }
+}
@@ -0,0 +1,24 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.EmailOutboxService;
+
+@Component
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxService emailOutboxService;
+
+    public EmailOutboxDispatcher(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.mail.outbox.poll-ms}")
+    public void dispatch() {
+        // each batch runs in its own transaction; keep draining until nothing is due
+        int dispatched;
+        do {
+            dispatched = emailOutboxService.dispatchDue();
+        } while (dispatched > 0);
+    }
+}
@@ -0,0 +1,140 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EOutboxStatus;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailObject;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailOutboxEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.EmailOutboxRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.EmailOutboxService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.BulkMailService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    /*
+     * Emails are not sent from the request that triggers them. enqueue()
+     * only inserts a row, joining the caller's transaction, and the
+     * scheduled dispatcher delivers due rows in batches. A failed send is
+     * retried with exponential backoff until max-attempts, after which
+     * the row is parked as DEAD for manual inspection.
+     */
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final BulkMailService bulkMailService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final Clock clock;
+
+    @Autowired
+    public EmailOutboxServiceImpl(EmailOutboxRepository emailOutboxRepository, BulkMailService bulkMailService,
+                                  @Value("${spring.mail.outbox.batch-size}") int batchSize,
+                                  @Value("${spring.mail.outbox.max-attempts}") int maxAttempts,
+                                  @Value("${spring.mail.outbox.backoff-ms}") long backoffMs,
+                                  @Value("${spring.mail.outbox.max-backoff-ms}") long maxBackoffMs) {
+        this(emailOutboxRepository, bulkMailService, batchSize, maxAttempts, backoffMs, maxBackoffMs, Clock.systemDefaultZone());
+    }
+
+    EmailOutboxServiceImpl(EmailOutboxRepository emailOutboxRepository, BulkMailService bulkMailService, int batchSize,
+                           int maxAttempts, long backoffMs, long maxBackoffMs, Clock clock) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.bulkMailService = bulkMailService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.clock = clock;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(EmailObject object) {
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        EmailOutboxEntity email = new EmailOutboxEntity()
+                .setRecipient(object.getTo())
+                .setSubject(object.getSubject())
+                .setText(object.getText())
+                .setCreatedAt(now)
+                .setNextAttemptAt(now);
+
+        emailOutboxRepository.save(email);
+    }
+
+    @Override
+    @Transactional
+    public int dispatchDue() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<EmailOutboxEntity> due = emailOutboxRepository.findDue(EOutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+
+        if (due.isEmpty())
+            return 0;
+
+        // the whole batch goes out over as few SMTP connections as possible
+        Map<EmailObject, EmailOutboxEntity> byObject = new IdentityHashMap<>();
+        for (EmailOutboxEntity email : due)
+            byObject.put(email.toEmailObject(), email);
+
+        Map<EmailObject, Exception> failures = bulkMailService.sendAll(new ArrayList<>(byObject.keySet()));
+
+        byObject.forEach((object, email) -> {
+            email.setAttempts(email.getAttempts() + 1);
+            Exception failure = failures.get(object);
+
+            if (failure == null)
+                email.setStatus(EOutboxStatus.SENT).setSentAt(now).setLastError(null);
+            else
+                markFailed(email, failure, now);
+        });
+
+        emailOutboxRepository.saveAll(due);
+
+        logger.info("Email outbox : dispatched batch of " + due.size() + ", " + failures.size() + " failed.");
+
+        return due.size();
+    }
+
+    private void markFailed(EmailOutboxEntity email, Exception e, LocalDateTime now) {
+        int attempt = email.getAttempts();
+        email.setLastError(truncate(e.getMessage()));
+
+        if (attempt >= maxAttempts) {
+            email.setStatus(EOutboxStatus.DEAD);
+            logger.error("Email outbox #" + email.getId() + " : giving up after " + attempt + " attempts.", e);
+            return;
+        }
+
+        email.setNextAttemptAt(now.plus(Duration.ofMillis(backoffFor(attempt))));
+        logger.warn("Email outbox #" + email.getId() + " : attempt " + attempt + " failed, will retry.");
+    }
+
+    long backoffFor(int attempt) {
+        // backoffMs, 2 * backoffMs, 4 * backoffMs, ... capped at maxBackoffMs
+        long delay = backoffMs << Math.min(attempt - 1, 30);
+        return delay <= 0 ? maxBackoffMs : Math.min(delay, maxBackoffMs);
+    }
+
+    private static String truncate(String message) {
+        if (message == null)
+            return null;
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
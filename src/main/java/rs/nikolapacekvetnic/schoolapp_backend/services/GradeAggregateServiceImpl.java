@@ -0,0 +1,245 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeAggregateDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeAggregateRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.LectureRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.StudentRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class GradeAggregateServiceImpl implements GradeAggregateService {
+
+    /*
+     * Aggregates are kept per grade card, per student and semester and per
+     * lecture. Writers call in from inside their own transaction, so a
+     * grade and the aggregates that count it are committed together.
+     * Deltas for the same aggregate are merged first, so a batch of grades
+     * costs one upsert per touched row rather than one per grade.
+     */
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final GradeAggregateRepository gradeAggregateRepository;
+    private final GradeCardRepository gradeCardRepository;
+    private final LectureRepository lectureRepository;
+    private final StudentRepository studentRepository;
+    private final UserLoginService userLoginService;
+    private final CurrentUserHolder currentUserHolder;
+
+    public GradeAggregateServiceImpl(GradeAggregateRepository gradeAggregateRepository, GradeCardRepository gradeCardRepository, LectureRepository lectureRepository, StudentRepository studentRepository, UserLoginService userLoginService, CurrentUserHolder currentUserHolder) {
+        this.gradeAggregateRepository = gradeAggregateRepository;
+        this.gradeCardRepository = gradeCardRepository;
+        this.lectureRepository = lectureRepository;
+        this.studentRepository = studentRepository;
+        this.userLoginService = userLoginService;
+        this.currentUserHolder = currentUserHolder;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordGrades(Collection<GradeEntity> grades) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (GradeEntity grade : grades)
+            addDeltas(deltas, grade, grade.getGrade(), 1);
+
+        apply(deltas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changeGrade(GradeEntity grade, Integer previousGrade) {
+        if (Objects.equals(previousGrade, grade.getGrade()))
+            return;
+
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        addDeltas(deltas, grade, previousGrade, -1);
+        addDeltas(deltas, grade, grade.getGrade(), 1);
+
+        apply(deltas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeGrade(GradeEntity grade) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        addDeltas(deltas, grade, grade.getGrade(), -1);
+
+        apply(deltas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeStudents(Collection<Integer> studentIds) {
+        int lectures = gradeAggregateRepository.subtractStudentsFromLectures(studentIds);
+        int removed = gradeAggregateRepository.deleteForStudents(studentIds);
+
+        logger.debug("Removed " + studentIds.size() + " students from " + lectures + " lecture aggregates, deleted " + removed + " aggregates");
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeLectures(Collection<Integer> lectureIds) {
+        int students = gradeAggregateRepository.subtractLecturesFromStudents(lectureIds);
+        int removed = gradeAggregateRepository.deleteForLectures(lectureIds);
+
+        logger.debug("Removed " + lectureIds.size() + " lectures from " + students + " student aggregates, deleted " + removed + " aggregates");
+    }
+
+    private void addDeltas(Map<String, Delta> deltas, GradeEntity grade, Integer value, int sign) {
+        GradeCardEntity gradeCard = grade.getGradeCard();
+        LectureEntity lecture = gradeCard.getLecture();
+
+        // removeLectures already took a detached card's grades out of every aggregate
+        if (lecture == null)
+            return;
+
+        Integer studentId = gradeCard.getStudent().getId();
+
+        Integer year = year(gradeCard);
+        ESemester semester = semester(gradeCard);
+
+        delta(deltas, gradeCardKey(gradeCard.getId()), EGradeAggregateScope.GRADE_CARD, gradeCard.getId(), year, semester)
+                .add(value, sign);
+        delta(deltas, studentSemesterKey(studentId, year, semester), EGradeAggregateScope.STUDENT_SEMESTER, studentId, year, semester)
+                .add(value, sign);
+        delta(deltas, lectureKey(lecture.getId()), EGradeAggregateScope.LECTURE, lecture.getId(), lecture.getYear(), lecture.getSemester())
+                .add(value, sign);
+    }
+
+    private static Delta delta(Map<String, Delta> deltas, String key, EGradeAggregateScope scope, Integer ownerId, Integer year, ESemester semester) {
+        return deltas.computeIfAbsent(key, k -> new Delta(scope, ownerId, year, semester));
+    }
+
+    // cards enrolled before the term was stored on them fall back to their lecture's
+    private static Integer year(GradeCardEntity gradeCard) {
+        if (gradeCard.getYear() != null || gradeCard.getLecture() == null)
+            return gradeCard.getYear();
+        return gradeCard.getLecture().getYear();
+    }
+
+    private static ESemester semester(GradeCardEntity gradeCard) {
+        if (gradeCard.getYear() != null || gradeCard.getLecture() == null)
+            return gradeCard.getSemester();
+        return gradeCard.getLecture().getSemester();
+    }
+
+    private void apply(Map<String, Delta> deltas) {
+        for (Map.Entry<String, Delta> entry : deltas.entrySet()) {
+            Delta delta = entry.getValue();
+            if (delta.isEmpty())
+                continue;
+
+            int[] h = delta.histogram;
+            gradeAggregateRepository.addToHistogram(entry.getKey(), delta.scope.name(), delta.ownerId, delta.year,
+                    delta.semester == null ? null : delta.semester.name(), h[0], h[1], h[2], h[3], h[4]);
+        }
+    }
+
+    static String gradeCardKey(Integer gradeCardId) {
+        return "GRADE_CARD:" + gradeCardId;
+    }
+
+    static String studentSemesterKey(Integer studentId, Integer year, ESemester semester) {
+        return "STUDENT_SEMESTER:" + studentId + ":" + year + ":" + semester;
+    }
+
+    static String lectureKey(Integer lectureId) {
+        return "LECTURE:" + lectureId;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public GradeAggregateDto getGradeCardAggregate(Integer gradeCardId) {
+        GradeCardEntity gradeCard = gradeCardRepository.findById(gradeCardId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Grade card not found."));
+        ensureCanViewStudent(gradeCard.getStudent().getId());
+
+        return gradeAggregateRepository.findByAggregateKey(gradeCardKey(gradeCardId))
+                .map(GradeAggregateEntity::toDto)
+                .orElseGet(() -> GradeAggregateDto.of(EGradeAggregateScope.GRADE_CARD, gradeCardId, year(gradeCard), semester(gradeCard), new int[5]));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GradeAggregateDto> getStudentAggregates(Integer studentId) {
+        ensureCanViewStudent(studentId);
+
+        return gradeAggregateRepository.findAllByScopeAndOwnerIdOrderByYearAscSemesterAsc(EGradeAggregateScope.STUDENT_SEMESTER, studentId).stream()
+                .map(GradeAggregateEntity::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public GradeAggregateDto getLectureAggregate(Integer lectureId) {
+        if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN) && !userLoginService.isAuthorizedAs(EUserRole.TEACHER))
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request.");
+
+        LectureEntity lecture = lectureRepository.findById(lectureId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Lecture not found."));
+
+        return gradeAggregateRepository.findByAggregateKey(lectureKey(lectureId))
+                .map(GradeAggregateEntity::toDto)
+                .orElseGet(() -> GradeAggregateDto.of(EGradeAggregateScope.LECTURE, lectureId, lecture.getYear(), lecture.getSemester(), new int[5]));
+    }
+
+    /*
+     * Admins and teachers see every student, a student only their own
+     * aggregates and a parent only those of their children.
+     */
+    private void ensureCanViewStudent(Integer studentId) {
+        if (userLoginService.isAuthorizedAs(EUserRole.ADMIN) || userLoginService.isAuthorizedAs(EUserRole.TEACHER))
+            return;
+
+        UserCredentialsDto credentials = userLoginService.getLoggedInUsername()
+                .flatMap(currentUserHolder::findCredentials)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request."));
+
+        boolean allowed = credentials.getRole() == EUserRole.STUDENT
+                ? credentials.getId().equals(studentId)
+                : credentials.getRole() == EUserRole.PARENT && studentRepository.isChildOf(studentId, credentials.getId());
+
+        if (!allowed) {
+            logger.info(credentials.getUsername() + " : denied grade aggregates of student " + studentId);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request.");
+        }
+    }
+
+    private static class Delta {
+
+        private final EGradeAggregateScope scope;
+        private final Integer ownerId;
+        private final Integer year;
+        private final ESemester semester;
+        private final int[] histogram = new int[5];
+
+        Delta(EGradeAggregateScope scope, Integer ownerId, Integer year, ESemester semester) {
+            this.scope = scope;
+            this.ownerId = ownerId;
+            this.year = year;
+            this.semester = semester;
+        }
+
+        void add(Integer grade, int sign) {
+            histogram[grade - 1] += sign;
+        }
+
+        boolean isEmpty() {
+            return Arrays.stream(histogram).allMatch(count -> count == 0);
+        }
+    }
+}
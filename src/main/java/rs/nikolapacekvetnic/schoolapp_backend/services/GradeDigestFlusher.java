@@ -0,0 +1,26 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeNotificationService;
+
+@Component
+@ConditionalOnProperty(name = "spring.mail.digest.enabled", havingValue = "true")
+public class GradeDigestFlusher {
+
+    private final GradeNotificationService gradeNotificationService;
+
+    public GradeDigestFlusher(GradeNotificationService gradeNotificationService) {
+        this.gradeNotificationService = gradeNotificationService;
+    }
+
+    @Scheduled(cron = "${spring.mail.digest.cron}")
+    public void flush() {
+        // one batch per transaction, until no pending entries are left
+        int emails;
+        do {
+            emails = gradeNotificationService.flushDigests();
+        } while (emails > 0);
+    }
+}
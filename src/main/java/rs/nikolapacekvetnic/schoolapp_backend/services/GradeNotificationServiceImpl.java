@@ -0,0 +1,133 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeDigestEntryRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.EmailOutboxService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeNotificationService;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class GradeNotificationServiceImpl implements GradeNotificationService {
+
+    /*
+     * Every parent linked to the graded student is notified. In digest
+     * mode a grade only records a digest entry; the scheduled flush then
+     * turns all pending entries of one parent into a single email, so a
+     * teacher grading a whole class produces one mail per parent instead
+     * of one per grade. Entries are flushed in bounded batches, and a
+     * digest too long for one outbox row is split over several emails.
+     */
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final String DIGEST_HEADER = "New grades since the last digest:\n\n";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final EmailOutboxService emailOutboxService;
+    private final GradeDigestEntryRepository gradeDigestEntryRepository;
+    private final boolean digestEnabled;
+    private final int batchSize;
+
+    public GradeNotificationServiceImpl(EmailOutboxService emailOutboxService, GradeDigestEntryRepository gradeDigestEntryRepository,
+                                        @Value("${spring.mail.digest.enabled}") boolean digestEnabled,
+                                        @Value("${spring.mail.digest.batch-size}") int batchSize) {
+        this.emailOutboxService = emailOutboxService;
+        this.gradeDigestEntryRepository = gradeDigestEntryRepository;
+        this.digestEnabled = digestEnabled;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void notifyParents(StudentEntity student, GradeEntity grade) {
+        String studentName = student.getLastName() + " " + student.getFirstName();
+        String subjectName = grade.getGradeCard().getLecture().getSubject().getName();
+
+        for (ParentEntity parent : student.getParents()) {
+            if (parent.getEmail() == null)
+                continue;
+
+            if (digestEnabled) {
+                gradeDigestEntryRepository.save(new GradeDigestEntryEntity()
+                        .setRecipient(parent.getEmail())
+                        .setStudentName(studentName)
+                        .setSubjectName(subjectName)
+                        .setGrade(grade.getGrade())
+                        .setGradedOn(grade.getDate()));
+            } else {
+                emailOutboxService.enqueue(new EmailObject(parent.getEmail(),
+                        String.format("%s - new grade in subject '%s'", studentName, subjectName),
+                        String.format("Your child was graded %d today.", grade.getGrade())));
+            }
+        }
+
+        logger.info("Student #" + student.getId() + " : " + student.getParents().size()
+                + (digestEnabled ? " parent digest entries recorded." : " parent notifications queued."));
+    }
+
+    @Override
+    @Transactional
+    public int flushDigests() {
+        List<GradeDigestEntryEntity> entries = gradeDigestEntryRepository.findAllForFlush(PageRequest.of(0, batchSize));
+
+        if (entries.isEmpty())
+            return 0;
+
+        Map<String, List<GradeDigestEntryEntity>> byRecipient = new LinkedHashMap<>();
+        for (GradeDigestEntryEntity entry : entries)
+            byRecipient.computeIfAbsent(entry.getRecipient(), r -> new ArrayList<>()).add(entry);
+
+        int emails = 0;
+        for (Map.Entry<String, List<GradeDigestEntryEntity>> pending : byRecipient.entrySet()) {
+            for (List<String> lines : digestParts(pending.getValue())) {
+                emailOutboxService.enqueue(new EmailObject(pending.getKey(),
+                        String.format("Grade digest - %d new grade(s)", lines.size()),
+                        DIGEST_HEADER + String.join("", lines)));
+                emails++;
+            }
+        }
+
+        gradeDigestEntryRepository.deleteAllByIds(entries.stream()
+                .map(GradeDigestEntryEntity::getId)
+                .collect(Collectors.toList()));
+
+        logger.info("Grade digest : " + entries.size() + " grades flushed into " + emails + " emails.");
+
+        return emails;
+    }
+
+    // splits one recipient's lines so that no email text outgrows its outbox column
+    private static List<List<String>> digestParts(List<GradeDigestEntryEntity> pending) {
+        List<List<String>> parts = new ArrayList<>();
+        List<String> part = new ArrayList<>();
+        int length = DIGEST_HEADER.length();
+
+        for (GradeDigestEntryEntity entry : pending) {
+            String line = String.format("%s - %s: %d (%s)%n", entry.getStudentName(), entry.getSubjectName(),
+                    entry.getGrade(), entry.getGradedOn().format(DATE_FORMAT));
+
+            if (!part.isEmpty() && length + line.length() > EmailOutboxEntity.TEXT_LENGTH) {
+                parts.add(part);
+                part = new ArrayList<>();
+                length = DIGEST_HEADER.length();
+            }
+
+            part.add(line);
+            length += line.length();
+        }
+
+        parts.add(part);
+        return parts;
+    }
+}
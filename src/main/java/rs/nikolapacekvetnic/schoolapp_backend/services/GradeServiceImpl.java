@@ -4,15 +4,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeEntryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeResultDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
-import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.EmailService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeNotificationService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class GradeServiceImpl implements GradeService {
@@ -23,19 +29,24 @@ public class GradeServiceImpl implements GradeService {
     private final GradeCardRepository gradeCardRepository;
     private final LectureRepository lectureRepository;
     private final StudentRepository studentRepository;
-    private final EmailService emailService;
+    private final GradeNotificationService gradeNotificationService;
+    private final GradeAggregateService gradeAggregateService;
+    private final GradeStatisticsService gradeStatisticsService;
     private final UserLoginService userLoginService;
 
-    public GradeServiceImpl(GradeRepository gradeRepository, GradeCardRepository gradeCardRepository, LectureRepository lectureRepository, StudentRepository studentRepository, EmailService emailService, UserLoginService userLoginService) {
+    public GradeServiceImpl(GradeRepository gradeRepository, GradeCardRepository gradeCardRepository, LectureRepository lectureRepository, StudentRepository studentRepository, GradeNotificationService gradeNotificationService, GradeAggregateService gradeAggregateService, GradeStatisticsService gradeStatisticsService, UserLoginService userLoginService) {
         this.gradeRepository = gradeRepository;
         this.gradeCardRepository = gradeCardRepository;
         this.lectureRepository = lectureRepository;
         this.studentRepository = studentRepository;
-        this.emailService = emailService;
+        this.gradeNotificationService = gradeNotificationService;
+        this.gradeAggregateService = gradeAggregateService;
+        this.gradeStatisticsService = gradeStatisticsService;
         this.userLoginService = userLoginService;
     }
 
     @Override
+    @Transactional
     public LectureEntity gradeStudentInLecture(Integer studentId, Integer lectureId, Integer grade) {
         if (!(0 < grade && grade <= 5)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid grade.");
@@ -46,71 +57,158 @@ public class GradeServiceImpl implements GradeService {
         LectureEntity lecture = lectureRepository.findById(lectureId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Lecture not found."));
 
-        // check if the current user is authorized
-        boolean isAdmin = userLoginService.isAuthorizedAs(EUserRole.ADMIN);
-        boolean isTeacher = userLoginService.getLoggedInUsername().isPresent() &&
-                userLoginService.getLoggedInUsername().get().equals(lecture.getTeacher().getUsername());
-
-        if (!isAdmin && !isTeacher) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request.");
-        }
+        if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN))
+            ensureIsLoggedInAs(lecture.getTeacher());
 
         GradeCardEntity gradeCard = getOrCreateGradeCard(student, lecture);
-        createAndSaveGrade(grade, gradeCard);
-        sendGradeNotification(student, gradeCard, grade);
+        GradeEntity newGrade = createAndSaveGrade(grade, gradeCard);
+        gradeAggregateService.recordGrades(Collections.singletonList(newGrade));
+        gradeStatisticsService.gradesChanged(Collections.singletonList(newGrade));
+
+        // recorded in the grading transaction, delivered later through the email outbox
+        gradeNotificationService.notifyParents(student, newGrade);
 
         logger.info("Lecture #" + lecture.getId() + " : student " + studentId + " graded " + grade);
 
         return lecture;
     }
 
+    @Override
+    @Transactional
+    public List<GradeResultDto> gradeStudentsInLecture(Integer lectureId, List<GradeEntryDto> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No grades provided.");
+        }
+
+        LectureEntity lecture = lectureRepository.findById(lectureId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Lecture not found."));
+
+        // authorized once for the whole batch
+        if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN))
+            ensureIsLoggedInAs(lecture.getTeacher());
+
+        Set<Integer> studentIds = entries.stream()
+                .filter(GradeServiceImpl::isValidEntry)
+                .map(GradeEntryDto::getStudentId)
+                .collect(Collectors.toSet());
+        Map<Integer, GradeCardEntity> gradeCards = findOrCreateGradeCards(lecture, studentIds);
+
+        LocalDate today = LocalDate.now();
+        List<GradeResultDto> results = new ArrayList<>();
+        List<GradeResultDto> createdResults = new ArrayList<>();
+        List<GradeEntity> newGrades = new ArrayList<>();
+
+        for (GradeEntryDto entry : entries) {
+            if (!isValidEntry(entry)) {
+                results.add(GradeResultDto.rejected(entry.getStudentId(), "Invalid grade."));
+                continue;
+            }
+
+            GradeCardEntity gradeCard = gradeCards.get(entry.getStudentId());
+            if (gradeCard == null) {
+                results.add(GradeResultDto.rejected(entry.getStudentId(), "Student not found."));
+                continue;
+            }
+
+            GradeEntity newGrade = new GradeEntity();
+            newGrade.setDate(today);
+            newGrade.setGrade(entry.getGrade());
+            newGrade.setGradeCard(gradeCard);
+            newGrades.add(newGrade);
+
+            GradeResultDto result = GradeResultDto.created(entry.getStudentId(), null);
+            results.add(result);
+            createdResults.add(result);
+        }
+
+        // inserted as JDBC batches, see hibernate.jdbc.batch_size
+        gradeRepository.saveAll(newGrades);
+        gradeAggregateService.recordGrades(newGrades);
+        gradeStatisticsService.gradesChanged(newGrades);
+
+        for (int i = 0; i < newGrades.size(); i++) {
+            GradeEntity newGrade = newGrades.get(i);
+            createdResults.get(i).setGradeId(newGrade.getId());
+            gradeNotificationService.notifyParents(newGrade.getGradeCard().getStudent(), newGrade);
+        }
+
+        logger.info("Lecture #" + lecture.getId() + " : " + newGrades.size() + " of " + entries.size() + " grades recorded.");
+
+        return results;
+    }
+
+    private static boolean isValidEntry(GradeEntryDto entry) {
+        return entry.getStudentId() != null && entry.getGrade() != null && 0 < entry.getGrade() && entry.getGrade() <= 5;
+    }
+
+    private Map<Integer, GradeCardEntity> findOrCreateGradeCards(LectureEntity lecture, Set<Integer> studentIds) {
+        Map<Integer, GradeCardEntity> gradeCards = new HashMap<>();
+        if (studentIds.isEmpty())
+            return gradeCards;
+
+        for (GradeCardEntity gradeCard : gradeCardRepository.findAllForGrading(lecture.getId(), studentIds))
+            gradeCards.put(gradeCard.getStudent().getId(), gradeCard);
+
+        Set<Integer> missing = new HashSet<>(studentIds);
+        missing.removeAll(gradeCards.keySet());
+
+        if (!missing.isEmpty()) {
+            List<GradeCardEntity> newGradeCards = new ArrayList<>();
+            for (StudentEntity student : studentRepository.findAllWithParents(missing)) {
+                GradeCardEntity newGradeCard = new GradeCardEntity();
+                newGradeCard.setLecture(lecture);
+                newGradeCard.setStudent(student);
+                newGradeCard.setPresent(0);
+                newGradeCard.setAbsent(0);
+                newGradeCards.add(newGradeCard);
+                gradeCards.put(student.getId(), newGradeCard);
+            }
+            gradeCardRepository.saveAll(newGradeCards);
+        }
+
+        return gradeCards;
+    }
+
+    private void ensureIsLoggedInAs(TeacherEntity teacher) {
+        // answered from the authenticated principal, without touching the database
+        Optional<String> loggedInUsername = userLoginService.getLoggedInUsername();
+
+        if (!loggedInUsername.isPresent() || !loggedInUsername.get().equals(teacher.getUsername())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request.");
+        }
+    }
+
+    /*
+     * Only the owning side (GradeCardEntity.student/lecture, GradeEntity.gradeCard)
+     * is written. The inverse collections are lazy sorted sets, and adding
+     * to them would load every existing grade card or grade first.
+     */
     private GradeCardEntity getOrCreateGradeCard(StudentEntity student, LectureEntity lecture) {
         return gradeCardRepository.findByLectureAndStudent(lecture, student)
                 .orElseGet(() -> {
                     GradeCardEntity newGradeCard = new GradeCardEntity();
                     newGradeCard.setLecture(lecture);
                     newGradeCard.setStudent(student);
+                    newGradeCard.setPresent(0);
+                    newGradeCard.setAbsent(0);
                     gradeCardRepository.save(newGradeCard);
 
-                    student.getGradeCards().add(newGradeCard);
-                    studentRepository.save(student);
-
-                    lecture.getGradeCards().add(newGradeCard);
-                    lectureRepository.save(lecture);
-
                     return newGradeCard;
                 });
     }
 
-    private void createAndSaveGrade(Integer gradeValue, GradeCardEntity gradeCard) {
+    private GradeEntity createAndSaveGrade(Integer gradeValue, GradeCardEntity gradeCard) {
         GradeEntity newGrade = new GradeEntity();
         newGrade.setDate(LocalDate.now());
         newGrade.setGrade(gradeValue);
         newGrade.setGradeCard(gradeCard);
         gradeRepository.save(newGrade);
 
-        gradeCard.getGrades().add(newGrade);
-        gradeCardRepository.save(gradeCard);
-    }
-
-    private void sendGradeNotification(StudentEntity student, GradeCardEntity gradeCard, Integer grade) {
-        Optional<ParentEntity> parentOpt = student.getParents().stream().findFirst();
-        if (parentOpt.isPresent()) {
-            EmailObject emailObject = new EmailObject();
-            emailObject.setTo(parentOpt.get().getEmail());
-            emailObject.setSubject(String.format("%s %s - new grade in subject '%s'",
-                    student.getLastName(), student.getFirstName(),
-                    gradeCard.getLecture().getSubject().getName()));
-            emailObject.setText(String.format("Your child was graded %d today.", grade));
-
-            emailService.sendSimpleMessage(emailObject);
-            logger.info("Lecture #" + gradeCard.getLecture().getId() + " : parent notified.");
-        } else {
-            logger.info("Lecture #" + gradeCard.getLecture().getId() + " : parent not found.");
-        }
+        return newGrade;
     }
 
     @Override
+    @Transactional
     public GradeEntity updateGrade(Integer id, Integer grade) {
         if (!(0 < grade && grade <= 5)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid grade.");
@@ -119,16 +217,18 @@ public class GradeServiceImpl implements GradeService {
         GradeEntity gradeEntity = gradeRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Grade not found."));
 
-        boolean isAdmin = userLoginService.isAuthorizedAs(EUserRole.ADMIN);
-        boolean isTeacher = userLoginService.getLoggedInUsername().isPresent() &&
-                userLoginService.getLoggedInUsername().get().equals(gradeEntity.getGradeCard().getLecture().getTeacher().getUsername());
-
-        if (!isAdmin && !isTeacher) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request.");
+        if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN)) {
+            // a card detached from its deleted lecture no longer belongs to any teacher
+            LectureEntity lecture = gradeEntity.getGradeCard().getLecture();
+            if (lecture == null)
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request.");
+            ensureIsLoggedInAs(lecture.getTeacher());
         }
 
+        Integer previousGrade = gradeEntity.getGrade();
         gradeEntity.setGrade(grade);
-        gradeRepository.save(gradeEntity);
+        gradeAggregateService.changeGrade(gradeEntity, previousGrade);
+        gradeStatisticsService.gradesChanged(Collections.singletonList(gradeEntity));
 
         logger.info("Grade #" + gradeEntity.getId() + " : updated.");
 
@@ -136,15 +236,14 @@ public class GradeServiceImpl implements GradeService {
     }
 
     @Override
+    @Transactional
     public void deleteGrade(Integer id) {
         GradeEntity grade = gradeRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Grade not found."));
 
-        GradeCardEntity gradeCard = grade.getGradeCard();
-        gradeCard.getGrades().remove(grade);
-        gradeCardRepository.save(gradeCard);
-
         gradeRepository.delete(grade);
+        gradeAggregateService.removeGrade(grade);
+        gradeStatisticsService.gradesChanged(Collections.singletonList(grade));
 
         logger.info("Grade #" + grade.getId() + " : deleted.");
     }
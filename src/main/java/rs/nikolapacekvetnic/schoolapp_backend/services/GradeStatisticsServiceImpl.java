@@ -0,0 +1,195 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeStatisticsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.ExpiringCache;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+@Service
+public class GradeStatisticsServiceImpl implements GradeStatisticsService {
+
+    /*
+     * Statistics are computed by the database and kept in a bounded local
+     * cache for one TTL. Concurrent requests for the same lecture, class or
+     * subject wait for a single computation instead of each running the
+     * queries. Changing a grade drops exactly the lecture, class and
+     * subject entries it counts towards, once the change is committed. A
+     * computation that overlaps an invalidation is returned to its callers
+     * but not cached, so a stale result never outlives the request.
+     */
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final GradeCardRepository gradeCardRepository;
+    private final UserLoginService userLoginService;
+    private final ExpiringCache<String, GradeStatisticsDto> statistics;
+    private final Map<String, CompletableFuture<GradeStatisticsDto>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    @Autowired
+    public GradeStatisticsServiceImpl(GradeCardRepository gradeCardRepository, UserLoginService userLoginService,
+                                      @Value("${spring.statistics.cache-size}") int cacheSize,
+                                      @Value("${spring.statistics.cache-ttl-ms}") long ttlMs) {
+        this(gradeCardRepository, userLoginService, cacheSize, ttlMs, System::currentTimeMillis);
+    }
+
+    GradeStatisticsServiceImpl(GradeCardRepository gradeCardRepository, UserLoginService userLoginService, int cacheSize, long ttlMs, LongSupplier clock) {
+        this.gradeCardRepository = gradeCardRepository;
+        this.userLoginService = userLoginService;
+        this.statistics = new ExpiringCache<>(cacheSize, clock);
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public GradeStatisticsDto getStatistics(EStatisticsScope scope, Integer ownerId) {
+        if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN) && !userLoginService.isAuthorizedAs(EUserRole.TEACHER))
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request.");
+
+        String key = key(scope, ownerId);
+        GradeStatisticsDto cached = statistics.get(key);
+        if (cached != null)
+            return cached;
+
+        CompletableFuture<GradeStatisticsDto> created = new CompletableFuture<>();
+        CompletableFuture<GradeStatisticsDto> running = inFlight.putIfAbsent(key, created);
+        if (running != null)
+            return join(running);
+
+        try {
+            long generation = generations.getOrDefault(key, 0L);
+            GradeStatisticsDto computed = gradeCardRepository.computeStatistics(scope, ownerId);
+
+            // the check and the put run under the key's lock, so an invalidation cannot slip in between
+            generations.compute(key, (k, current) -> {
+                if (generation == (current == null ? 0L : current))
+                    statistics.put(key, computed, clock.getAsLong() + ttlMs);
+                return current;
+            });
+
+            created.complete(computed);
+            return computed;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private static GradeStatisticsDto join(CompletableFuture<GradeStatisticsDto> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    @Override
+    public void gradesChanged(Collection<GradeEntity> grades) {
+        gradeCardsChanged(grades.stream()
+                .map(GradeEntity::getGradeCard)
+                .collect(Collectors.toList()));
+    }
+
+    // new grade cards change the card count and attendance sums even without grades
+    @Override
+    public void gradeCardsChanged(Collection<GradeCardEntity> gradeCards) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (GradeCardEntity gradeCard : gradeCards) {
+            LectureEntity lecture = gradeCard.getLecture();
+            SchoolClassEntity schoolClass = gradeCard.getStudent().getSchoolClass();
+
+            // a card detached from its deleted lecture no longer counts towards any lecture or subject
+            if (lecture != null) {
+                keys.add(key(EStatisticsScope.LECTURE, lecture.getId()));
+                if (lecture.getSubject() != null)
+                    keys.add(key(EStatisticsScope.SUBJECT, lecture.getSubject().getId()));
+            }
+            if (schoolClass != null)
+                keys.add(key(EStatisticsScope.SCHOOL_CLASS, schoolClass.getId()));
+        }
+
+        if (!keys.isEmpty())
+            afterCompletion(() -> invalidate(keys));
+    }
+
+    // moving a student between classes moves all of their grade cards with them
+    @Override
+    public void schoolClassesChanged(Collection<Integer> schoolClassIds) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Integer schoolClassId : schoolClassIds)
+            keys.add(key(EStatisticsScope.SCHOOL_CLASS, schoolClassId));
+
+        afterCompletion(() -> invalidate(keys));
+    }
+
+    // used by bulk deletions, where collecting the affected keys would cost more than recomputing
+    @Override
+    public void invalidateAll() {
+        afterCompletion(() -> {
+            // computations still running were started before the change and must not be cached
+            for (String key : inFlight.keySet())
+                generations.merge(key, 1L, Long::sum);
+
+            statistics.invalidateAll();
+            inFlight.clear();
+
+            logger.debug("Invalidated all statistics");
+        });
+    }
+
+    private static void afterCompletion(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+
+        // until the commit, readers still see the old grades and may cache them
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidation.run();
+            }
+        });
+    }
+
+    private void invalidate(Set<String> keys) {
+        for (String key : keys) {
+            generations.merge(key, 1L, Long::sum);
+            statistics.invalidate(key);
+            inFlight.remove(key);
+        }
+
+        logger.debug("Invalidated statistics " + keys);
+    }
+
+    private static String key(EStatisticsScope scope, Integer ownerId) {
+        return scope + ":" + ownerId;
+    }
+}
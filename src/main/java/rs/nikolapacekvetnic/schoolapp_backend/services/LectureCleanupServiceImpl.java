@@ -0,0 +1,78 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.LectureRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureCleanupService;
+
+import java.util.Collection;
+
+@Service
+public class LectureCleanupServiceImpl implements LectureCleanupService {
+
+    /*
+     * Deleting lectures only detaches their grade cards, so tearing down a
+     * subject or a teacher costs the same few statements however many
+     * students were enrolled. The detached cards and their grades no longer
+     * show up anywhere and are purged in the background, one bounded batch
+     * per transaction, so the purge never holds long locks on the hot tables.
+     */
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final GradeCardRepository gradeCardRepository;
+    private final GradeRepository gradeRepository;
+    private final LectureRepository lectureRepository;
+    private final GradeAggregateService gradeAggregateService;
+    private final GradeStatisticsService gradeStatisticsService;
+    private final int purgeBatchSize;
+
+    public LectureCleanupServiceImpl(GradeCardRepository gradeCardRepository, GradeRepository gradeRepository, LectureRepository lectureRepository,
+                                     GradeAggregateService gradeAggregateService, GradeStatisticsService gradeStatisticsService,
+                                     @Value("${spring.grades.purge.batch-size}") int purgeBatchSize) {
+        this.gradeCardRepository = gradeCardRepository;
+        this.gradeRepository = gradeRepository;
+        this.lectureRepository = lectureRepository;
+        this.gradeAggregateService = gradeAggregateService;
+        this.gradeStatisticsService = gradeStatisticsService;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteLectures(Collection<Integer> lectureIds) {
+        if (lectureIds.isEmpty())
+            return;
+
+        // aggregates are adjusted first, while the cards still point at their lectures
+        gradeAggregateService.removeLectures(lectureIds);
+        int detached = gradeCardRepository.detachFromLectures(lectureIds);
+        lectureRepository.deleteAllByIds(lectureIds);
+
+        gradeStatisticsService.invalidateAll();
+
+        logger.info("Deleted lectures " + lectureIds + ", detached " + detached + " grade cards");
+    }
+
+    @Override
+    @Transactional
+    public int purgeOrphans() {
+        int grades = gradeRepository.deleteOrphans(purgeBatchSize);
+
+        // cards are only removed once none of their grades are left
+        int gradeCards = grades < purgeBatchSize ? gradeCardRepository.deleteOrphans(purgeBatchSize - grades) : 0;
+
+        if (grades + gradeCards > 0)
+            logger.info("Purged " + grades + " orphaned grades and " + gradeCards + " orphaned grade cards");
+
+        return grades + gradeCards;
+    }
+}
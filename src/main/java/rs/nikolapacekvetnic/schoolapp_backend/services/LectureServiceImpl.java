@@ -4,20 +4,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.EnrollmentRequestDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.EnrollmentResultDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.LectureRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureCleanupService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class LectureServiceImpl implements LectureService {
 
+    private static final int MAX_ENROLLMENT_SIZE = 5000;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final GradeCardRepository gradeCardRepository;
@@ -25,18 +33,23 @@ public class LectureServiceImpl implements LectureService {
     private final StudentRepository studentRepository;
     private final SubjectRepository subjectRepository;
     private final TeacherRepository teacherRepository;
+    private final LectureCleanupService lectureCleanupService;
+    private final GradeStatisticsService gradeStatisticsService;
     private final UserLoginService userLoginService;
 
-    public LectureServiceImpl(GradeCardRepository gradeCardRepository, LectureRepository lectureRepository, StudentRepository studentRepository, SubjectRepository subjectRepository, TeacherRepository teacherRepository, UserLoginService userLoginService) {
+    public LectureServiceImpl(GradeCardRepository gradeCardRepository, LectureRepository lectureRepository, StudentRepository studentRepository, SubjectRepository subjectRepository, TeacherRepository teacherRepository, LectureCleanupService lectureCleanupService, GradeStatisticsService gradeStatisticsService, UserLoginService userLoginService) {
         this.gradeCardRepository = gradeCardRepository;
         this.lectureRepository = lectureRepository;
         this.studentRepository = studentRepository;
         this.subjectRepository = subjectRepository;
         this.teacherRepository = teacherRepository;
+        this.lectureCleanupService = lectureCleanupService;
+        this.gradeStatisticsService = gradeStatisticsService;
         this.userLoginService = userLoginService;
     }
 
     @Override
+    @Transactional
     public LectureEntity connectSubjectWithTeacher(Integer subjectId, Integer teacherId, LectureRegisterDto lectureDTO, BindingResult result) {
         Optional<SubjectEntity> subjectOpt = subjectRepository.findById(subjectId);
         Optional<TeacherEntity> teacherOpt = teacherRepository.findById(teacherId);
@@ -60,18 +73,13 @@ public class LectureServiceImpl implements LectureService {
         lecture.setSemester(lectureDTO.getSemester());
         lectureRepository.save(lecture);
 
-        subject.getLectures().add(lecture);
-        subjectRepository.save(subject);
-
-        teacher.getLectures().add(lecture);
-        teacherRepository.save(teacher);
-
         logger.info("Lecture #" + lecture.getId() + " : created.");
 
         return lecture;
     }
 
     @Override
+    @Transactional
     public LectureEntity connectStudentWithLecture(Integer studentId, Integer lectureId) {
         Optional<StudentEntity> studentOpt = studentRepository.findById(studentId);
         Optional<LectureEntity> lectureOpt = lectureRepository.findById(lectureId);
@@ -92,19 +100,83 @@ public class LectureServiceImpl implements LectureService {
         gradeCard.setLecture(lecture);
         gradeCard.setStudent(student);
         gradeCardRepository.save(gradeCard);
-
-        student.getGradeCards().add(gradeCard);
-        studentRepository.save(student);
-
-        lecture.getGradeCards().add(gradeCard);
-        lectureRepository.save(lecture);
+        gradeStatisticsService.gradeCardsChanged(Collections.singletonList(gradeCard));
 
         logger.info("Lecture #" + lecture.getId() + " : student " + studentId + " added.");
 
         return lecture;
     }
 
+    /*
+     * Enrolls a class and/or a list of students with a fixed number of
+     * statements: one to load the students, one to find those who already
+     * have a grade card in the lecture, and a batched insert of the missing
+     * cards. Only the owning side of the associations is written.
+     */
     @Override
+    @Transactional
+    public EnrollmentResultDto enrollStudents(Integer lectureId, EnrollmentRequestDto enrollment) {
+        ensureRoleIsAdmin();
+
+        if (enrollment == null || (enrollment.getSchoolClassId() == null && (enrollment.getStudentIds() == null || enrollment.getStudentIds().isEmpty()))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Class or students must be provided.");
+        }
+
+        Set<Integer> requestedIds = enrollment.getStudentIds() == null ? new LinkedHashSet<>() : new LinkedHashSet<>(enrollment.getStudentIds());
+        requestedIds.remove(null);
+        if (requestedIds.size() > MAX_ENROLLMENT_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_ENROLLMENT_SIZE + " students can be enrolled at once.");
+        }
+
+        LectureEntity lecture = lectureRepository.findById(lectureId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Lecture not found."));
+
+        Map<Integer, StudentEntity> students = new LinkedHashMap<>();
+        if (enrollment.getSchoolClassId() != null) {
+            studentRepository.findAllBySchoolClassId(enrollment.getSchoolClassId())
+                    .forEach(student -> students.put(student.getId(), student));
+        }
+
+        Set<Integer> toLoad = new LinkedHashSet<>(requestedIds);
+        toLoad.removeAll(students.keySet());
+        if (!toLoad.isEmpty()) {
+            studentRepository.findAllById(toLoad)
+                    .forEach(student -> students.put(student.getId(), student));
+        }
+
+        List<Integer> notFound = requestedIds.stream()
+                .filter(id -> !students.containsKey(id))
+                .collect(Collectors.toList());
+
+        Set<Integer> enrolled = students.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(gradeCardRepository.findEnrolledStudentIds(lectureId, students.keySet()));
+
+        List<GradeCardEntity> newGradeCards = new ArrayList<>();
+        for (StudentEntity student : students.values()) {
+            if (enrolled.contains(student.getId()))
+                continue;
+
+            GradeCardEntity gradeCard = new GradeCardEntity();
+            gradeCard.setLecture(lecture);
+            gradeCard.setStudent(student);
+            gradeCard.setPresent(0);
+            gradeCard.setAbsent(0);
+            newGradeCards.add(gradeCard);
+        }
+
+        // inserted as JDBC batches, see hibernate.jdbc.batch_size
+        gradeCardRepository.saveAll(newGradeCards);
+        gradeStatisticsService.gradeCardsChanged(newGradeCards);
+
+        logger.info("Lecture #" + lectureId + " : " + newGradeCards.size() + " students enrolled, "
+                + enrolled.size() + " already enrolled, " + notFound.size() + " not found.");
+
+        return new EnrollmentResultDto(lectureId, newGradeCards.size(), enrolled.size(), notFound);
+    }
+
+    @Override
+    @Transactional
     public LectureEntity disconnectSubjectWithTeacher(Integer subjectId, Integer teacherId) {
         ensureRoleIsAdmin();
 
@@ -116,13 +188,10 @@ public class LectureServiceImpl implements LectureService {
         LectureEntity lecture = lectureRepository.findBySubjectAndTeacher(subject, teacher)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Such lecture does not exist."));
 
-        subject.getLectures().remove(lecture);
-        subjectRepository.save(subject);
-
-        teacher.getLectures().remove(lecture);
-        teacherRepository.save(teacher);
+        // grade cards are detached in bulk and their grades purged in the background
+        lectureCleanupService.deleteLectures(Collections.singletonList(lecture.getId()));
 
-        lectureRepository.delete(lecture);
+        logger.info("Lecture #" + lecture.getId() + " : deleted.");
 
         return lecture;
     }
@@ -0,0 +1,26 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureCleanupService;
+
+@Component
+@ConditionalOnProperty(name = "spring.grades.purge.enabled", havingValue = "true")
+public class OrphanGradePurger {
+
+    private final LectureCleanupService lectureCleanupService;
+
+    public OrphanGradePurger(LectureCleanupService lectureCleanupService) {
+        this.lectureCleanupService = lectureCleanupService;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.grades.purge.poll-ms}")
+    public void purge() {
+        // each batch runs in its own transaction; keep going until no orphans are left
+        int purged;
+        do {
+            purged = lectureCleanupService.purgeOrphans();
+        } while (purged > 0);
+    }
+}
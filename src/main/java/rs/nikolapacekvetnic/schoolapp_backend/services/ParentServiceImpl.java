@@ -5,46 +5,59 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ChildGradeSummaryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ParentRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.ParentRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.StudentRepository;
-import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.ParentService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.GradeViewMapper;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
 import javax.validation.ValidationException;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class ParentServiceImpl implements ParentService {
 
+    private static final int DASHBOARD_LATEST_GRADES = 5;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final ParentRepository parentRepository;
+    private final GradeCardRepository gradeCardRepository;
     private final StudentRepository studentRepository;
     private final UserCustomValidator userValidator;
     private final UserLoginService userLoginService;
-    private final UserRepository userRepository;
+    private final CurrentUserHolder currentUserHolder;
+    private final TokenEpochService tokenEpochService;
 
     @Autowired
-    public ParentServiceImpl(ParentRepository parentRepository, UserRepository userRepository, UserLoginService userLoginService, UserCustomValidator userValidator, StudentRepository studentRepository) {
+    public ParentServiceImpl(ParentRepository parentRepository, GradeCardRepository gradeCardRepository, CurrentUserHolder currentUserHolder, UserLoginService userLoginService, UserCustomValidator userValidator, StudentRepository studentRepository, TokenEpochService tokenEpochService) {
         this.parentRepository = parentRepository;
-        this.userRepository = userRepository;
+        this.gradeCardRepository = gradeCardRepository;
+        this.currentUserHolder = currentUserHolder;
         this.userLoginService = userLoginService;
         this.userValidator = userValidator;
         this.studentRepository = studentRepository;
+        this.tokenEpochService = tokenEpochService;
     }
 
+    @Transactional(readOnly = true)
     public ParentEntity getParent(String username) {
-        UserEntity user = userRepository.findByUsername(username)
+        UserEntity user = currentUserHolder.findByUsername(username)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
         if (user.getRole() != EUserRole.PARENT) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not a parent.");
@@ -54,25 +67,54 @@ public class ParentServiceImpl implements ParentService {
         return (ParentEntity) user;
     }
 
-    public List<Set<GradeCardEntity>> getGradeCards(String username) {
-        ParentEntity parent = getParent(username);
+    @Transactional(readOnly = true)
+    public List<GradeCardViewDto> getGradeCards(String username, GradeFilterDto filter) {
+        List<Integer> childIds = studentRepository.findIdsByParentId(getParentId(username));
         logger.info(username + " : viewed children's grades.");
 
-        return parent.getStudents().stream()
-                .map(StudentEntity::getGradeCards)
-                .collect(Collectors.toList());
+        return GradeViewMapper.toGradeCards(gradeCardRepository.findGradeRows(childIds, filter));
     }
 
-    public List<GradeCardEntity> getGradeCardsForSubject(String username, Integer subjectId) {
-        ParentEntity parent = getParent(username);
+    @Transactional(readOnly = true)
+    public List<GradeCardViewDto> getGradeCardsForSubject(String username, Integer subjectId, GradeFilterDto filter) {
+        List<Integer> childIds = studentRepository.findIdsByParentId(getParentId(username));
         logger.info(username + " : viewed children's grades for subject.");
 
-        return parent.getStudents().stream()
-                .flatMap(s -> s.getGradeCards().stream())
-                .filter(g -> g.getLecture().getSubject().getId().equals(subjectId))
+        return GradeViewMapper.toGradeCards(gradeCardRepository.findGradeRows(childIds, filter.setSubjectId(subjectId)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ChildGradeSummaryDto> getDashboard(String username, GradeFilterDto filter) {
+        List<StudentEntity> children = studentRepository.findAllByParentId(getParentId(username));
+        logger.info(username + " : viewed children's dashboard.");
+
+        /*
+         * Children are loaded with one query; the database returns only the
+         * latest grades of each child and the per-subject averages, so the
+         * amount read does not depend on the size of the grade history.
+         */
+        List<Integer> childIds = children.stream()
+                .map(StudentEntity::getId)
                 .collect(Collectors.toList());
+
+        return GradeViewMapper.toChildSummaries(children,
+                gradeCardRepository.findLatestGrades(childIds, filter, DASHBOARD_LATEST_GRADES),
+                gradeCardRepository.findSubjectAverages(childIds, filter));
     }
 
+    // grade views only need the parent's id, so the parent profile itself is not loaded
+    private Integer getParentId(String username) {
+        UserCredentialsDto credentials = currentUserHolder.findCredentials(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
+        if (credentials.getRole() != EUserRole.PARENT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not a parent.");
+        }
+
+        return credentials.getId();
+    }
+
+    @Transactional
     public ParentEntity updateParent(Integer id, ParentRegisterDto parentDto, BindingResult result) {
         ensureRoleIsAdmin();
 
@@ -89,18 +131,20 @@ public class ParentServiceImpl implements ParentService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Parent not found."));
 
         updateParentEntity(parent, parentDto);
-        parentRepository.save(parent);
 
         logger.info("Updated parent " + parent.getUsername());
         return parent;
     }
 
     private void updateParentEntity(ParentEntity parent, ParentRegisterDto parentDto) {
+        String previousUsername = parent.getUsername();
+
         parent.setEmail(parentDto.getEmail());
         parent.setFirstName(parentDto.getFirstName());
         parent.setLastName(parentDto.getLastName());
         parent.setPassword(parentDto.getPassword());
         parent.setUsername(parentDto.getUsername());
+        tokenEpochService.revokeTokens(parent, previousUsername);
     }
 
     private String createErrorMessage(BindingResult result) {
@@ -109,6 +153,7 @@ public class ParentServiceImpl implements ParentService {
                 .collect(Collectors.joining("\n"));
     }
 
+    @Transactional
     public ParentEntity connectStudentWithParent(Integer studentId, Integer parentId) {
         StudentEntity student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Student not found."));
@@ -119,26 +164,22 @@ public class ParentServiceImpl implements ParentService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Student already has both parents.");
         }
 
+        // the student owns the association, the parent's side only keeps the returned entity consistent
         student.getParents().add(parent);
-        studentRepository.save(student);
-
         parent.getStudents().add(student);
-        parentRepository.save(parent);
 
         logger.info("Connected student " + student.getUsername() + " with parent " + parent.getUsername());
         return parent;
     }
 
+    @Transactional
     public void deleteParent(Integer id) {
         ensureRoleIsAdmin();
 
         ParentEntity parent = parentRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Parent not found."));
 
-        parent.getStudents().forEach(student -> {
-            student.getParents().remove(parent);
-            studentRepository.save(student);
-        });
+        parent.getStudents().forEach(student -> student.getParents().remove(parent));
 
         parentRepository.delete(parent);
         logger.info("Deleted parent " + parent.getUsername());
@@ -0,0 +1,170 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.HashingCapacityExceededException;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.PasswordHashingService;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+    /*
+     * BCrypt is deliberately CPU-heavy, so it runs on its own fixed-size
+     * pool with a bounded queue instead of on the servlet threads. When
+     * the queue is full the request is rejected right away (503 with
+     * Retry-After) rather than piling up behind other hashing work.
+     */
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int retryAfterSeconds;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public PasswordHashingServiceImpl(@Value("${spring.security.hashing.threads}") int threads,
+                                      @Value("${spring.security.hashing.queue-capacity}") int queueCapacity,
+                                      @Value("${spring.security.hashing.timeout-ms}") long timeoutMs,
+                                      @Value("${spring.security.hashing.retry-after-seconds}") int retryAfterSeconds,
+                                      MeterRegistry meterRegistry) {
+        this(new BCryptPasswordEncoder(), threads, queueCapacity, timeoutMs, retryAfterSeconds, meterRegistry);
+    }
+
+    PasswordHashingServiceImpl(PasswordEncoder encoder, int threads, int queueCapacity, long timeoutMs,
+                               int retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.encoder = encoder;
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing.latency").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.latency").tag("operation", "matches").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(String rawPassword) {
+        return submit(() -> encodeTimer.recordCallable(() -> encoder.encode(rawPassword)));
+    }
+
+    /*
+     * Hashes a batch on the same pool, keeping at most one task per worker
+     * in flight, so a bulk import uses every worker without filling the
+     * queue that interactive logins and registrations depend on.
+     */
+    @Override
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        int window = executor.getCorePoolSize();
+
+        try {
+            for (String rawPassword : rawPasswords) {
+                if (inFlight.size() >= window)
+                    await(inFlight.poll());
+
+                Future<String> future = submitBatchTask(() -> encodeTimer.recordCallable(() -> encoder.encode(rawPassword)), inFlight);
+                futures.add(future);
+                inFlight.add(future);
+            }
+
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (Future<String> future : futures)
+                hashes.add(await(future));
+
+            return hashes;
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private <T> Future<T> submitBatchTask(Callable<T> task, Deque<Future<T>> inFlight) {
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                // the queue is full of other work: wait for our own oldest task before giving up
+                if (inFlight.isEmpty()) {
+                    rejectedCounter.increment();
+                    throw new HashingCapacityExceededException("Server is busy, please try again later.", retryAfterSeconds);
+                }
+                await(inFlight.poll());
+            }
+        }
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.recordCallable(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("Password hashing queue is full, request rejected.");
+            throw new HashingCapacityExceededException("Server is busy, please try again later.", retryAfterSeconds);
+        }
+
+        return await(future);
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Server is busy, please try again later.", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed.", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
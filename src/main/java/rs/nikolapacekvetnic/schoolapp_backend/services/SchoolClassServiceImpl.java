@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.server.ResponseStatusException;
@@ -15,11 +16,14 @@ import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SchoolClassRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.SchoolClassRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.StudentRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.SchoolClassService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.SchoolClassCustomValidator;
 
 import javax.validation.ValidationException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,19 +33,23 @@ public class SchoolClassServiceImpl implements SchoolClassService {
     private final SchoolClassCustomValidator schoolClassValidator;
     private final StudentRepository studentRepository;
     private final UserLoginService userLoginService;
+    private final GradeStatisticsService gradeStatisticsService;
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     @Autowired
     public SchoolClassServiceImpl(SchoolClassRepository schoolClassRepository,
                                   SchoolClassCustomValidator schoolClassValidator,
-                                  UserLoginService userLoginService, StudentRepository studentRepository) {
+                                  UserLoginService userLoginService, StudentRepository studentRepository,
+                                  GradeStatisticsService gradeStatisticsService) {
         this.schoolClassRepository = schoolClassRepository;
         this.schoolClassValidator = schoolClassValidator;
         this.userLoginService = userLoginService;
         this.studentRepository = studentRepository;
+        this.gradeStatisticsService = gradeStatisticsService;
     }
 
     @Override
+    @Transactional
     public SchoolClassEntity addNewSchoolClass(SchoolClassRegisterDto schoolClassDTO, BindingResult result) {
 
         ensureRoleIsAdmin();
@@ -73,6 +81,7 @@ public class SchoolClassServiceImpl implements SchoolClassService {
     }
 
     @Override
+    @Transactional
     public StudentEntity connectStudentWithClass(Integer studentId, Integer schoolClassId) {
 
         ensureRoleIsAdmin();
@@ -82,11 +91,12 @@ public class SchoolClassServiceImpl implements SchoolClassService {
         SchoolClassEntity schoolClass = schoolClassRepository.findById(schoolClassId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Class not found."));
 
+        SchoolClassEntity previousClass = student.getSchoolClass();
         student.setSchoolClass(schoolClass);
-        studentRepository.save(student);
 
-        schoolClass.getStudents().add(student);
-        schoolClassRepository.save(schoolClass);
+        gradeStatisticsService.schoolClassesChanged(previousClass == null
+                ? Collections.singletonList(schoolClass.getId())
+                : Arrays.asList(previousClass.getId(), schoolClass.getId()));
 
         logger.info("Added student " + student.getUsername() + " to class " +
                 schoolClass.getClassNo() + "-" + schoolClass.getSectionNo());
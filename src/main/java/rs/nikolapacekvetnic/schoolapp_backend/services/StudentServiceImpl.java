@@ -4,53 +4,68 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.StudentRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.StudentService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.GradeViewMapper;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
 import javax.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class StudentServiceImpl implements StudentService {
 
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final GradeCardRepository gradeCardRepository;
     private final GradeRepository gradeRepository;
-    private final LectureRepository lectureRepository;
-    private final ParentRepository parentRepository;
     private final StudentRepository studentRepository;
     private final UserRepository userRepository;
+    private final CurrentUserHolder currentUserHolder;
     private final UserLoginService userLoginService;
     private final UserCustomValidator userValidator;
+    private final GradeAggregateService gradeAggregateService;
+    private final GradeStatisticsService gradeStatisticsService;
+    private final TokenEpochService tokenEpochService;
 
-    public StudentServiceImpl(GradeCardRepository gradeCardRepository, GradeRepository gradeRepository, LectureRepository lectureRepository, ParentRepository parentRepository, StudentRepository studentRepository, UserRepository userRepository, UserLoginService userLoginService, UserCustomValidator userValidator) {
+    public StudentServiceImpl(GradeCardRepository gradeCardRepository, GradeRepository gradeRepository, StudentRepository studentRepository, UserRepository userRepository, CurrentUserHolder currentUserHolder, UserLoginService userLoginService, UserCustomValidator userValidator, GradeAggregateService gradeAggregateService, GradeStatisticsService gradeStatisticsService, TokenEpochService tokenEpochService) {
         this.gradeCardRepository = gradeCardRepository;
         this.gradeRepository = gradeRepository;
-        this.lectureRepository = lectureRepository;
-        this.parentRepository = parentRepository;
         this.studentRepository = studentRepository;
         this.userRepository = userRepository;
+        this.currentUserHolder = currentUserHolder;
         this.userLoginService = userLoginService;
         this.userValidator = userValidator;
+        this.gradeAggregateService = gradeAggregateService;
+        this.gradeStatisticsService = gradeStatisticsService;
+        this.tokenEpochService = tokenEpochService;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public StudentEntity getStudent(String username) {
-        UserEntity user = userRepository.findByUsername(username)
+        UserEntity user = currentUserHolder.findByUsername(username)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
         if (user.getRole() != EUserRole.STUDENT) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not a student.");
@@ -62,24 +77,33 @@ public class StudentServiceImpl implements StudentService {
     }
 
     @Override
-    public Set<GradeCardEntity> getGradeCards(String username) {
-        StudentEntity student = getStudent(username);
+    @Transactional(readOnly = true)
+    public List<GradeCardViewDto> getGradeCards(String username, GradeFilterDto filter) {
+        Integer studentId = getStudentId(username);
         logger.info(userLoginService.getLoggedInUsername() + " : viewed own grades.");
 
-        return student.getGradeCards();
+        return GradeViewMapper.toGradeCards(gradeCardRepository.findGradeRows(studentId, filter));
     }
 
-    @Override
-    public List<GradeCardEntity> getGradeCardsForSubject(String username, Integer subjectId) {
-        StudentEntity student = getStudent(username);
-        logger.info(userLoginService.getLoggedInUsername() + " : viewed own grades.");
+    // grade views only need the student's id, so the student profile itself is not loaded
+    private Integer getStudentId(String username) {
+        UserCredentialsDto credentials = currentUserHolder.findCredentials(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
+        if (credentials.getRole() != EUserRole.STUDENT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not a student.");
+        }
+
+        return credentials.getId();
+    }
 
-        return student.getGradeCards().stream()
-                .filter(g -> g.getLecture().getSubject().getId().equals(subjectId))
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public List<GradeCardViewDto> getGradeCardsForSubject(String username, Integer subjectId, GradeFilterDto filter) {
+        return getGradeCards(username, filter.setSubjectId(subjectId));
     }
 
     @Override
+    @Transactional
     public StudentEntity updateStudent(Integer id, StudentRegisterDto studentDto, BindingResult result) {
 
         ensureRoleIsAdmin();
@@ -97,7 +121,6 @@ public class StudentServiceImpl implements StudentService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Student not found."));
 
         updateStudentEntity(student, studentDto);
-        studentRepository.save(student);
 
         logger.info(userLoginService.getLoggedInUsername() + " : updated student " + student.getUsername());
 
@@ -105,11 +128,14 @@ public class StudentServiceImpl implements StudentService {
     }
 
     private void updateStudentEntity(StudentEntity student, StudentRegisterDto studentDto) {
+        String previousUsername = student.getUsername();
+
         student.setJmbg(studentDto.getJmbg());
         student.setFirstName(studentDto.getFirstName());
         student.setLastName(studentDto.getLastName());
         student.setPassword(studentDto.getPassword());
         student.setUsername(studentDto.getUsername());
+        tokenEpochService.revokeTokens(student, previousUsername);
     }
 
     private String createErrorMessage(BindingResult result) {
@@ -119,6 +145,7 @@ public class StudentServiceImpl implements StudentService {
     }
 
     @Override
+    @Transactional
     public void deleteStudent(Integer id) {
         if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN)) {
             throw new UnauthorizedException("Unauthorized request.");
@@ -126,26 +153,42 @@ public class StudentServiceImpl implements StudentService {
 
         StudentEntity student = studentRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Student not found."));
+        String username = student.getUsername();
 
-        removeStudentAssociations(student);
-        studentRepository.delete(student);
+        deleteStudents(Collections.singletonList(id));
 
-        logger.info(userLoginService.getLoggedInUsername() + " : deleted student " + student.getUsername());
+        logger.info(userLoginService.getLoggedInUsername() + " : deleted student " + username);
     }
 
-    private void removeStudentAssociations(StudentEntity student) {
-        student.getParents().forEach(parent -> {
-            parent.getStudents().remove(student);
-            parentRepository.save(parent);
-        });
+    @Override
+    @Transactional
+    public int deleteGeneration(Integer generation) {
+        ensureRoleIsAdmin();
+
+        List<Integer> ids = studentRepository.findIdsByGeneration(generation);
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE)
+            deleteStudents(new ArrayList<>(ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()))));
 
-        student.getGradeCards().forEach(gradeCard -> {
-            gradeCard.getLecture().getGradeCards().remove(gradeCard);
-            lectureRepository.save(gradeCard.getLecture());
+        logger.info(userLoginService.getLoggedInUsername() + " : deleted " + ids.size() + " students of generation " + generation);
+        return ids.size();
+    }
 
-            gradeRepository.deleteAll(gradeCard.getGrades());
-            gradeCardRepository.delete(gradeCard);
-        });
+    /*
+     * Removes the students and everything that references them with a fixed
+     * number of bulk statements, whatever the number of grade cards, grades
+     * or parents: aggregates first, while the grades are still there to be
+     * counted, then grades, grade cards, parent links, and the student and
+     * user rows. Parents themselves are kept.
+     */
+    private void deleteStudents(List<Integer> ids) {
+        gradeAggregateService.removeStudents(ids);
+        gradeRepository.deleteAllByStudentIds(ids);
+        gradeCardRepository.deleteAllByStudentIds(ids);
+        studentRepository.deleteParentLinks(ids);
+        studentRepository.deleteStudentRows(ids);
+        userRepository.deleteAllByIds(ids);
+
+        gradeStatisticsService.invalidateAll();
     }
 
     private void ensureRoleIsAdmin() {
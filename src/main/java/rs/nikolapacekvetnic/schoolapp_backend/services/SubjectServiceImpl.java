@@ -4,19 +4,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.LectureEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.SubjectEntity;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SubjectRegisterDto;
-import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.LectureRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.SubjectRepository;
-import rs.nikolapacekvetnic.schoolapp_backend.repositories.TeacherRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureCleanupService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.SubjectService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.SubjectCustomValidator;
@@ -27,25 +25,24 @@ import java.util.stream.Collectors;
 @Service
 public class SubjectServiceImpl implements SubjectService {
 
-    private final GradeCardRepository gradeCardRepository;
     private final LectureRepository lectureRepository;
     private final SubjectRepository subjectRepository;
-    private final TeacherRepository teacherRepository;
+    private final LectureCleanupService lectureCleanupService;
     private final SubjectCustomValidator subjectValidator;
     private final UserLoginService userLoginService;
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    public SubjectServiceImpl(SubjectRepository subjectRepository, SubjectCustomValidator subjectValidator, UserLoginServiceImpl userLoginService, GradeCardRepository gradeCardRepository, LectureRepository lectureRepository, TeacherRepository teacherRepository) {
+    public SubjectServiceImpl(SubjectRepository subjectRepository, SubjectCustomValidator subjectValidator, UserLoginServiceImpl userLoginService, LectureRepository lectureRepository, LectureCleanupService lectureCleanupService) {
         this.subjectRepository = subjectRepository;
         this.subjectValidator = subjectValidator;
         this.userLoginService = userLoginService;
-        this.gradeCardRepository = gradeCardRepository;
         this.lectureRepository = lectureRepository;
-        this.teacherRepository = teacherRepository;
+        this.lectureCleanupService = lectureCleanupService;
     }
 
     @Override
+    @Transactional
     public SubjectEntity addNewSubject(SubjectRegisterDto subjectDTO, BindingResult result) {
 
         ensureRoleIsAdmin();
@@ -76,6 +73,7 @@ public class SubjectServiceImpl implements SubjectService {
                 .collect(Collectors.joining("\n"));
     }
 
+    @Transactional
     public SubjectEntity updateSubject(Integer id, SubjectRegisterDto subjectDTO, BindingResult result) {
 
         ensureRoleIsAdmin();
@@ -96,12 +94,12 @@ public class SubjectServiceImpl implements SubjectService {
         subject.setTotalHours(subjectDTO.getTotalHours());
         subject.setYearAccredited(subjectDTO.getYearAccredited());
 
-        subjectRepository.save(subject);
         logger.info(userLoginService.getLoggedInUsername() + " : updated subject " + subject.getName());
 
         return subject;
     }
 
+    @Transactional
     public void deleteSubject(Integer id) {
 
         ensureRoleIsAdmin();
@@ -109,19 +107,7 @@ public class SubjectServiceImpl implements SubjectService {
         SubjectEntity subject = subjectRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Subject not found."));
 
-        for (LectureEntity lecture : subject.getLectures()) {
-            TeacherEntity currentTeacher = lecture.getTeacher();
-            currentTeacher.getLectures().remove(lecture);
-            teacherRepository.save(currentTeacher);
-
-            lecture.getGradeCards().forEach(gc -> {
-                gc.setLecture(null);
-                gradeCardRepository.save(gc);
-            });
-
-            lectureRepository.delete(lecture);
-        }
-
+        lectureCleanupService.deleteLectures(lectureRepository.findIdsBySubjectId(id));
         subjectRepository.delete(subject);
         logger.info(userLoginService.getLoggedInUsername() + " : deleted subject " + subject.getName());
     }
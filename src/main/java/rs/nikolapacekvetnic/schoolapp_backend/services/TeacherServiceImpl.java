@@ -1,49 +1,68 @@
 package rs.nikolapacekvetnic.schoolapp_backend.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookPageDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureCleanupService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TeacherService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.GradeViewMapper;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
 import javax.validation.ValidationException;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class TeacherServiceImpl implements TeacherService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final GradeCardRepository gradeCardRepository;
     private final LectureRepository lectureRepository;
-    private final SubjectRepository subjectRepository;
     private final TeacherRepository teacherRepository;
-    private final UserRepository userRepository;
+    private final LectureCleanupService lectureCleanupService;
+    private final CurrentUserHolder currentUserHolder;
     private final UserLoginServiceImpl userLoginService;
     private final UserCustomValidator userValidator;
+    private final ObjectMapper objectMapper;
+    private final TokenEpochService tokenEpochService;
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    public TeacherServiceImpl(GradeCardRepository gradeCardRepository, LectureRepository lectureRepository, SubjectRepository subjectRepository, TeacherRepository teacherRepository, UserRepository userRepository, UserLoginServiceImpl userLoginService, UserCustomValidator userValidator) {
+    public TeacherServiceImpl(GradeCardRepository gradeCardRepository, LectureRepository lectureRepository, TeacherRepository teacherRepository, LectureCleanupService lectureCleanupService, CurrentUserHolder currentUserHolder, UserLoginServiceImpl userLoginService, UserCustomValidator userValidator, ObjectMapper objectMapper, TokenEpochService tokenEpochService) {
         this.gradeCardRepository = gradeCardRepository;
         this.lectureRepository = lectureRepository;
-        this.subjectRepository = subjectRepository;
         this.teacherRepository = teacherRepository;
-        this.userRepository = userRepository;
+        this.lectureCleanupService = lectureCleanupService;
+        this.currentUserHolder = currentUserHolder;
         this.userLoginService = userLoginService;
         this.userValidator = userValidator;
+        this.objectMapper = objectMapper;
+        this.tokenEpochService = tokenEpochService;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TeacherEntity getTeacher(String username) {
-        UserEntity user = userRepository.findByUsername(username)
+        UserEntity user = currentUserHolder.findByUsername(username)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
 
         if (user.getRole() != EUserRole.TEACHER) {
@@ -55,16 +74,63 @@ public class TeacherServiceImpl implements TeacherService {
         return (TeacherEntity) user;
     }
 
+    // the gradebook only needs the teacher's id, so the teacher profile itself is not loaded
     @Override
-    public List<GradeCardEntity> getTeacherGradeCards(TeacherEntity teacher) {
+    @Transactional(readOnly = true)
+    public Integer getTeacherId(String username) {
+        UserCredentialsDto credentials = currentUserHolder.findCredentials(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error."));
+        if (credentials.getRole() != EUserRole.TEACHER) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not a teacher.");
+        }
+
+        return credentials.getId();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public GradebookPageDto getGradebookPage(Integer teacherId, GradebookFilterDto filter) {
         logger.info(userLoginService.getLoggedInUsername() + " : viewed own students' grades.");
 
-        return teacher.getLectures().stream()
-                .flatMap(l -> l.getGradeCards().stream())
-                .collect(Collectors.toList());
+        int size = filter.getSize() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(filter.getSize(), MAX_PAGE_SIZE));
+        return readGradebookPage(teacherId, filter, size);
     }
 
     @Override
+    public void streamGradebook(Integer teacherId, GradebookFilterDto filter, OutputStream out) throws IOException {
+        logger.info(userLoginService.getLoggedInUsername() + " : exported own students' grades.");
+
+        /*
+         * Walks the whole gradebook page by page and writes one JSON line per
+         * grade card, so at most one page is held in memory at any time.
+         */
+        GradebookPageDto page;
+        do {
+            page = readGradebookPage(teacherId, filter, MAX_PAGE_SIZE);
+
+            for (GradeCardViewDto gradeCard : page.getGradeCards()) {
+                out.write(objectMapper.writeValueAsBytes(gradeCard));
+                out.write('\n');
+            }
+
+            out.flush();
+            filter.setAfter(page.getNext());
+        } while (page.getNext() != null);
+    }
+
+    private GradebookPageDto readGradebookPage(Integer teacherId, GradebookFilterDto filter, int size) {
+        List<Integer> gradeCardIds = gradeCardRepository.findTeacherGradeCardIds(teacherId, filter, size + 1);
+        boolean hasNext = gradeCardIds.size() > size;
+
+        if (hasNext)
+            gradeCardIds = gradeCardIds.subList(0, size);
+
+        List<GradeCardViewDto> gradeCards = GradeViewMapper.toGradeCards(gradeCardRepository.findGradeRowsByGradeCardIds(gradeCardIds));
+        return new GradebookPageDto(gradeCards, hasNext ? gradeCardIds.get(size - 1) : null);
+    }
+
+    @Override
+    @Transactional
     public TeacherEntity updateTeacher(Integer id, TeacherRegisterDto teacherDto, BindingResult result) {
         if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN)) {
             throw new UnauthorizedException("Unauthorized request.");
@@ -83,7 +149,6 @@ public class TeacherServiceImpl implements TeacherService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Teacher not found."));
 
         updateTeacherEntity(teacher, teacherDto);
-        teacherRepository.save(teacher);
 
         logger.info(userLoginService.getLoggedInUsername() + " : updated teacher " + teacher.getUsername());
 
@@ -91,11 +156,14 @@ public class TeacherServiceImpl implements TeacherService {
     }
 
     private void updateTeacherEntity(TeacherEntity teacher, TeacherRegisterDto teacherDto) {
+        String previousUsername = teacher.getUsername();
+
         teacher.setEmail(teacherDto.getEmail());
         teacher.setFirstName(teacherDto.getFirstName());
         teacher.setLastName(teacherDto.getLastName());
         teacher.setPassword(teacherDto.getPassword());
         teacher.setUsername(teacherDto.getUsername());
+        tokenEpochService.revokeTokens(teacher, previousUsername);
     }
 
     private String createErrorMessage(BindingResult result) {
@@ -105,6 +173,7 @@ public class TeacherServiceImpl implements TeacherService {
     }
 
     @Override
+    @Transactional
     public void deleteTeacher(Integer id) {
         if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN)) {
             throw new UnauthorizedException("Unauthorized request.");
@@ -113,24 +182,9 @@ public class TeacherServiceImpl implements TeacherService {
         TeacherEntity teacher = teacherRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Teacher not found."));
 
-        removeTeacherAssociations(teacher);
+        lectureCleanupService.deleteLectures(lectureRepository.findIdsByTeacherId(id));
         teacherRepository.delete(teacher);
 
         logger.info(userLoginService.getLoggedInUsername() + " : deleted teacher " + teacher.getUsername());
     }
-
-    private void removeTeacherAssociations(TeacherEntity teacher) {
-        for (LectureEntity lecture : teacher.getLectures()) {
-            SubjectEntity currSubject = lecture.getSubject();
-            currSubject.getLectures().remove(lecture);
-            subjectRepository.save(currSubject);
-
-            lecture.getGradeCards().forEach(gc -> {
-                gc.setLecture(null);
-                gradeCardRepository.save(gc);
-            });
-
-            lectureRepository.delete(lecture);
-        }
-    }
 }
@@ -0,0 +1,84 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.ExpiringCache;
+
+import java.util.function.LongSupplier;
+
+@Service
+public class TokenEpochServiceImpl implements TokenEpochService {
+
+    /*
+     * Every user carries a token epoch that is baked into the JWT at login
+     * and bumped whenever the account is changed. A token is honoured only
+     * while its epoch matches the stored one. The stored epochs are kept in
+     * a short-lived local cache, so a change made elsewhere takes effect
+     * within one TTL without a query on every request; changes made through
+     * revokeTokens evict the cached epochs right away.
+     */
+
+    private static final int NO_SUCH_USER = -1;
+
+    private final UserRepository userRepository;
+    private final ExpiringCache<String, Integer> epochs;
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    @Autowired
+    public TokenEpochServiceImpl(UserRepository userRepository,
+                                 @Value("${spring.security.token-cache-size}") int cacheSize,
+                                 @Value("${spring.security.token-epoch-ttl-ms}") long ttlMs) {
+        this(userRepository, cacheSize, ttlMs, System::currentTimeMillis);
+    }
+
+    TokenEpochServiceImpl(UserRepository userRepository, int cacheSize, long ttlMs, LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.epochs = new ExpiringCache<>(cacheSize, clock);
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean isCurrent(String username, Integer tokenEpoch) {
+        Integer current = epochs.get(username);
+
+        if (current == null) {
+            // deleted or renamed users are cached too, so a stale token cannot keep hitting the database
+            current = userRepository.findTokenEpochByUsername(username).orElse(NO_SUCH_USER);
+            epochs.put(username, current, clock.getAsLong() + ttlMs);
+        }
+
+        return current != NO_SUCH_USER && current.equals(tokenEpoch == null ? 0 : tokenEpoch);
+    }
+
+    @Override
+    public void revokeTokens(UserEntity user, String previousUsername) {
+        user.revokeTokens();
+
+        String username = user.getUsername();
+        Runnable eviction = () -> {
+            epochs.invalidate(username);
+            if (previousUsername != null && !previousUsername.equals(username))
+                epochs.invalidate(previousUsername);
+        };
+
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // until the commit, a concurrent request still reads the old epoch and may cache it again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -3,9 +3,12 @@ package rs.nikolapacekvetnic.schoolapp_backend.services;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserLoginDto;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.PasswordHashingService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.Encryption;
 import io.jsonwebtoken.Jwts;
@@ -28,9 +31,14 @@ import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
 @Service
 public class UserLoginServiceImpl implements UserLoginService {
 	
+	private static final String DUMMY_PASSWORD_HASH = Encryption.getPassEncoded(UUID.randomUUID().toString());
+
 	@Autowired
 	private UserRepository userRepository;
 
+	@Autowired
+	private PasswordHashingService passwordHashingService;
+
 	private final Logger logger = (Logger) LoggerFactory.getLogger(this.getClass());
 
 	@Value("${spring.security.secret-key}")
@@ -42,36 +50,41 @@ public class UserLoginServiceImpl implements UserLoginService {
 	@Override
 	public boolean isAuthorizedAs(EUserRole role) {
 		
+		// the role travels in the token's authorities, so no lookup is needed here
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-		if (!(authentication instanceof AnonymousAuthenticationToken)) {
-		    
-		    UserEntity currentUser = userRepository.findByUsername(authentication.getName()).get();
-		    return currentUser.getRole() == role;
-		}
+		if (authentication == null || authentication instanceof AnonymousAuthenticationToken)
+			return false;
 		
-		return false;
+		return authentication.getAuthorities().stream()
+				.anyMatch(authority -> role.name().equals(authority.getAuthority()));
 	}
 
 	@Override
 	public Optional<UserLoginDto> getUserLoginDto(String username, String password) {
-		List<UserEntity> users = (List<UserEntity>) userRepository.findAll();
+		// only the users table is read; the subtype profile is not needed to issue a token
+		Optional<UserCredentialsDto> credentialsOpt = userRepository.findCredentialsByUsername(UserEntity.normalizeUsername(username));
+
+		if (!credentialsOpt.isPresent()) {
+			// burn one BCrypt round anyway so unknown usernames cannot be told apart by response time
+			passwordHashingService.matches(password, DUMMY_PASSWORD_HASH);
+			return Optional.empty();
+		}
 
-		for (UserEntity userEntity : users) {
-			if (userEntity.getUsername().equals(username) && Encryption.validatePassword(password, userEntity.getPassword())) {
-				String token = getJwtToken(userEntity);
+		UserCredentialsDto credentials = credentialsOpt.get();
 
-				UserLoginDto userLoginDTO = new UserLoginDto();
-				userLoginDTO.setUsername(username);
-				userLoginDTO.setToken(token);
+		if (!passwordHashingService.matches(password, credentials.getPassword()))
+			return Optional.empty();
 
-				logger.info(userLoginDTO.getUsername() + " : logged in.");
+		String token = createJwtToken(credentials.getUsername(), credentials.getRole(), credentials.getTokenEpoch());
 
-				return Optional.of(userLoginDTO);
-			}
-		}
+		UserLoginDto userLoginDTO = new UserLoginDto();
+		userLoginDTO.setUsername(credentials.getUsername());
+		userLoginDTO.setToken(token);
+
+		logger.info(userLoginDTO.getUsername() + " : logged in.");
 
-		return Optional.empty();
+		return Optional.of(userLoginDTO);
 	}
 
 	@Override
@@ -80,7 +93,7 @@ public class UserLoginServiceImpl implements UserLoginService {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 		String loggedInUsername = null;
 		
-		if (!(authentication instanceof AnonymousAuthenticationToken))
+		if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken))
 			loggedInUsername = authentication.getName();
 		
 		return Optional.ofNullable(loggedInUsername);
@@ -88,16 +101,21 @@ public class UserLoginServiceImpl implements UserLoginService {
 
 	@Override
 	public String getJwtToken(UserEntity user) {
-		List<GrantedAuthority> grantedAuthorities = AuthorityUtils.commaSeparatedStringToAuthorityList(user.getRole().name());
+		return createJwtToken(user.getUsername(), user.getRole(), user.getTokenEpoch());
+	}
+
+	private String createJwtToken(String username, EUserRole role, Integer tokenEpoch) {
+		List<GrantedAuthority> grantedAuthorities = AuthorityUtils.commaSeparatedStringToAuthorityList(role.name());
 
-		String token = Jwts.builder().setId("softtekJWT").setSubject(user.getUsername())
+		String token = Jwts.builder().setId("softtekJWT").setSubject(username)
 				.claim("authorities",
 						grantedAuthorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()))
+				.claim("epoch", tokenEpoch == null ? 0 : tokenEpoch)
 				.setIssuedAt(new Date(System.currentTimeMillis()))
 				.setExpiration(new Date(System.currentTimeMillis() + 600000))
 				.signWith(SignatureAlgorithm.HS512, secretKey.getBytes()).compact();
 
-		logger.info(user + " : JWTToken granted.");
+		logger.info(username + " : JWTToken granted.");
 
 		return token;
 	}
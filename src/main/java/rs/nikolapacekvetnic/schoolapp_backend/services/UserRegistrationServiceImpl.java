@@ -14,36 +14,57 @@ import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ParentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.StudentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserImportErrorDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserImportResultDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.PasswordHashingService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserRegistrationService;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.CsvUtil;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.ValidationException;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class UserRegistrationServiceImpl implements UserRegistrationService {
 
+    private static final int MAX_IMPORT_ROWS = 10000;
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
     final AdminRepository adminRepository;
     final ParentRepository parentRepository;
     final StudentRepository studentRepository;
     final TeacherRepository teacherRepository;
     final UserRepository userRepository;
 
+    final PasswordHashingService passwordHashingService;
     final UserLoginService userLoginService;
     final UserCustomValidator userValidator;
+    final Validator beanValidator;
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    public UserRegistrationServiceImpl(AdminRepository adminRepository, ParentRepository parentRepository, StudentRepository studentRepository, TeacherRepository teacherRepository, UserRepository userRepository, UserLoginService userLoginService, UserCustomValidator userValidator) {
+    public UserRegistrationServiceImpl(AdminRepository adminRepository, ParentRepository parentRepository, StudentRepository studentRepository, TeacherRepository teacherRepository, UserRepository userRepository, PasswordHashingService passwordHashingService, UserLoginService userLoginService, UserCustomValidator userValidator, Validator beanValidator) {
         this.adminRepository = adminRepository;
         this.parentRepository = parentRepository;
         this.studentRepository = studentRepository;
         this.teacherRepository = teacherRepository;
         this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
         this.userLoginService = userLoginService;
         this.userValidator = userValidator;
+        this.beanValidator = beanValidator;
     }
 
     @Override
@@ -58,7 +79,8 @@ public class UserRegistrationServiceImpl implements UserRegistrationService {
         if (result.hasErrors())
             throw new ValidationException(createErrorMessage(result));
 
-        AdminEntity admin = (AdminEntity) UserFactory.createUser(adminRegisterDto);
+        AdminEntity admin = (AdminEntity) UserFactory.createUser(adminRegisterDto,
+                passwordHashingService.encode(adminRegisterDto.getPassword()));
         userRepository.save(admin);
 
         logger.info(admin + " : created.");
@@ -81,7 +103,8 @@ public class UserRegistrationServiceImpl implements UserRegistrationService {
         if (result.hasErrors())
             throw new ValidationException(createErrorMessage(result));
 
-        TeacherEntity teacher = (TeacherEntity) UserFactory.createUser(teacherRegisterDto);
+        TeacherEntity teacher = (TeacherEntity) UserFactory.createUser(teacherRegisterDto,
+                passwordHashingService.encode(teacherRegisterDto.getPassword()));
         userRepository.save(teacher);
 
         logger.info(teacher + " : created.");
@@ -104,7 +127,8 @@ public class UserRegistrationServiceImpl implements UserRegistrationService {
         if (result.hasErrors())
             throw new ValidationException(createErrorMessage(result));
 
-        ParentEntity parent = (ParentEntity) UserFactory.createUser(parentRegisterDto);
+        ParentEntity parent = (ParentEntity) UserFactory.createUser(parentRegisterDto,
+                passwordHashingService.encode(parentRegisterDto.getPassword()));
         userRepository.save(parent);
 
         logger.info(parent + " : created.");
@@ -127,7 +151,8 @@ public class UserRegistrationServiceImpl implements UserRegistrationService {
         if (result.hasErrors())
             throw new ValidationException(createErrorMessage(result));
 
-        StudentEntity student = (StudentEntity) UserFactory.createUser(studentRegisterDto);
+        StudentEntity student = (StudentEntity) UserFactory.createUser(studentRegisterDto,
+                passwordHashingService.encode(studentRegisterDto.getPassword()));
         userRepository.save(student);
 
         logger.info(student + " : created.");
@@ -135,6 +160,180 @@ public class UserRegistrationServiceImpl implements UserRegistrationService {
         return student;
     }
 
+    /*
+     * Bulk import: every row is parsed and validated first, uniqueness is
+     * checked against the file itself and then with one IN query per
+     * thousand values, passwords are hashed in parallel on the hashing
+     * pool and the accepted rows are inserted with a single saveAll, which
+     * Hibernate sends as JDBC batches. Rejected rows are reported and
+     * skipped; they never block the valid ones.
+     */
+    @Override
+    public UserImportResultDto importUsers(EUserRole role, InputStream csv) throws IOException {
+
+        ensureRoleIsAdmin();
+
+        if (role == null || role == EUserRole.ADMIN)
+            throw new ValidationException("Only students, parents and teachers can be imported.");
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        List<String> header = CsvUtil.readRecord(in);
+        if (header == null)
+            throw new ValidationException("File is empty.");
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++)
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(), i);
+
+        String uniqueColumn = role == EUserRole.STUDENT ? "jmbg" : "email";
+        for (String column : Arrays.asList("username", "password", "firstname", "lastname", uniqueColumn))
+            if (!columns.containsKey(column))
+                throw new ValidationException("Missing column " + column + ".");
+
+        List<ImportRow> rows = new ArrayList<>();
+        List<UserImportErrorDto> errors = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> uniqueValues = new HashSet<>();
+
+        List<String> record;
+        int rowNo = 1;
+        int total = 0;
+        while ((record = CsvUtil.readRecord(in)) != null) {
+            rowNo++;
+            if (record.size() == 1 && record.get(0).trim().isEmpty())
+                continue;
+
+            if (++total > MAX_IMPORT_ROWS)
+                throw new ValidationException("At most " + MAX_IMPORT_ROWS + " rows can be imported at once.");
+
+            UserRegisterDto dto = toRegisterDto(role, record, columns);
+            String uniqueValue = uniqueValue(dto);
+
+            String message = beanValidator.validate(dto).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" "));
+
+            if (message.isEmpty() && !usernames.add(dto.getUsername()))
+                message = "Username is repeated in the file.";
+            if (message.isEmpty() && !uniqueValues.add(uniqueValue))
+                message = (role == EUserRole.STUDENT ? "Personal ID number" : "Email") + " is repeated in the file.";
+
+            if (message.isEmpty())
+                rows.add(new ImportRow(rowNo, dto));
+            else
+                errors.add(new UserImportErrorDto(rowNo, dto.getUsername(), message));
+        }
+
+        Set<String> takenUsernames = findExisting(usernames, userRepository::findExistingUsernames);
+        Set<String> takenValues = findExisting(uniqueValues, role == EUserRole.STUDENT
+                ? studentRepository::findExistingJmbgs
+                : role == EUserRole.TEACHER ? teacherRepository::findExistingEmails : parentRepository::findExistingEmails);
+
+        List<ImportRow> accepted = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (takenUsernames.contains(row.dto.getUsername()))
+                errors.add(new UserImportErrorDto(row.rowNo, row.dto.getUsername(), "Username is already taken."));
+            else if (takenValues.contains(uniqueValue(row.dto)))
+                errors.add(new UserImportErrorDto(row.rowNo, row.dto.getUsername(),
+                        role == EUserRole.STUDENT ? "Personal ID number must be unique." : "Email must be unique."));
+            else
+                accepted.add(row);
+        }
+
+        List<String> hashes = passwordHashingService.encodeAll(accepted.stream()
+                .map(row -> row.dto.getPassword())
+                .collect(Collectors.toList()));
+
+        List<UserEntity> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++)
+            users.add(UserFactory.createUser(accepted.get(i).dto, hashes.get(i)));
+
+        userRepository.saveAll(users);
+
+        errors.sort(Comparator.comparing(UserImportErrorDto::getRow));
+        logger.info(userLoginService.getLoggedInUsername() + " : imported " + users.size() +  " of " + total + " " + role + " rows.");
+
+        return new UserImportResultDto(role, total, users.size(), errors);
+    }
+
+    private static UserRegisterDto toRegisterDto(EUserRole role, List<String> record, Map<String, Integer> columns) {
+        UserRegisterDto dto;
+
+        if (role == EUserRole.STUDENT) {
+            StudentRegisterDto student = new StudentRegisterDto();
+            student.setFirstName(value(record, columns, "firstname"));
+            student.setLastName(value(record, columns, "lastname"));
+            student.setJmbg(value(record, columns, "jmbg"));
+            dto = student;
+        } else if (role == EUserRole.TEACHER) {
+            TeacherRegisterDto teacher = new TeacherRegisterDto();
+            teacher.setFirstName(value(record, columns, "firstname"));
+            teacher.setLastName(value(record, columns, "lastname"));
+            teacher.setEmail(value(record, columns, "email"));
+            dto = teacher;
+        } else {
+            ParentRegisterDto parent = new ParentRegisterDto();
+            parent.setFirstName(value(record, columns, "firstname"));
+            parent.setLastName(value(record, columns, "lastname"));
+            parent.setEmail(value(record, columns, "email"));
+            dto = parent;
+        }
+
+        dto.setUsername(UserEntity.normalizeUsername(value(record, columns, "username")));
+        dto.setPassword(value(record, columns, "password"));
+        dto.setConfirmPassword(dto.getPassword());
+        dto.setRole(role);
+
+        return dto;
+    }
+
+    private static String value(List<String> record, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        if (index >= record.size())
+            return null;
+
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String uniqueValue(UserRegisterDto dto) {
+        if (dto instanceof StudentRegisterDto)
+            return ((StudentRegisterDto) dto).getJmbg();
+        if (dto instanceof TeacherRegisterDto)
+            return ((TeacherRegisterDto) dto).getEmail();
+        return ((ParentRegisterDto) dto).getEmail();
+    }
+
+    private static Set<String> findExisting(Collection<String> values, Function<Collection<String>, List<String>> lookup) {
+        Set<String> existing = new HashSet<>();
+        List<String> chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+
+        for (String value : values) {
+            chunk.add(value);
+            if (chunk.size() == LOOKUP_CHUNK_SIZE) {
+                existing.addAll(lookup.apply(chunk));
+                chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+            }
+        }
+
+        if (!chunk.isEmpty())
+            existing.addAll(lookup.apply(chunk));
+
+        return existing;
+    }
+
+    private static class ImportRow {
+
+        private final int rowNo;
+        private final UserRegisterDto dto;
+
+        private ImportRow(int rowNo, UserRegisterDto dto) {
+            this.rowNo = rowNo;
+            this.dto = dto;
+        }
+    }
+
     private void ensureRoleIsAdmin() {
         if (!userLoginService.isAuthorizedAs(EUserRole.ADMIN))
             throw new UnauthorizedException("Unauthorized request.");
@@ -1,16 +1,22 @@
 package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
 
 import org.springframework.validation.BindingResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.AdminEntity;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EExportFormat;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserDirectoryEntryDto;
 
 import java.io.IOException;
 import java.util.List;
 
 public interface AdminService {
 
-    List<UserEntity> getAllUsers();
+    List<UserDirectoryEntryDto> getUserDirectory(EUserRole role, Integer page, Integer size);
+    StreamingResponseBody exportUserDirectory(EUserRole role);
+    StreamingResponseBody exportGrades(Integer year, ESemester semester, EExportFormat format);
     String getLogs() throws IOException;
     AdminEntity updateAdmin(Integer id, AdminRegisterDto adminDTO, BindingResult result);
     void deleteAdmin(Integer id);
@@ -0,0 +1,11 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
+
+import java.util.List;
+import java.util.Map;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailObject;
+
+public interface BulkMailService {
+
+    Map<EmailObject, Exception> sendAll(List<EmailObject> objects);
+}
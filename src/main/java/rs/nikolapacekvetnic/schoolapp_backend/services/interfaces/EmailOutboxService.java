@@ -0,0 +1,9 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailObject;
+
+public interface EmailOutboxService {
+
+    void enqueue(EmailObject object);
+    int dispatchDue();
+}
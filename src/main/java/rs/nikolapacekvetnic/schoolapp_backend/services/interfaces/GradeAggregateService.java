@@ -0,0 +1,19 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeAggregateDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface GradeAggregateService {
+
+    void recordGrades(Collection<GradeEntity> grades);
+    void changeGrade(GradeEntity grade, Integer previousGrade);
+    void removeGrade(GradeEntity grade);
+    void removeStudents(Collection<Integer> studentIds);
+    void removeLectures(Collection<Integer> lectureIds);
+    GradeAggregateDto getGradeCardAggregate(Integer gradeCardId);
+    List<GradeAggregateDto> getStudentAggregates(Integer studentId);
+    GradeAggregateDto getLectureAggregate(Integer lectureId);
+}
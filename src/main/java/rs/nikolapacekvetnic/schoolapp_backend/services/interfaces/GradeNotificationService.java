@@ -0,0 +1,10 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
+
+public interface GradeNotificationService {
+
+    void notifyParents(StudentEntity student, GradeEntity grade);
+    int flushDigests();
+}
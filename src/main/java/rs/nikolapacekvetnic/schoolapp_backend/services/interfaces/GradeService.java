@@ -1,11 +1,16 @@
 package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
 
+import java.util.List;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeEntryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeResultDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.LectureEntity;
 
 public interface GradeService {
 
     LectureEntity gradeStudentInLecture(Integer studentId, Integer lectureId, Integer grade);
+    List<GradeResultDto> gradeStudentsInLecture(Integer lectureId, List<GradeEntryDto> entries);
     GradeEntity updateGrade(Integer id, Integer grade);
     void deleteGrade(Integer id);
 }
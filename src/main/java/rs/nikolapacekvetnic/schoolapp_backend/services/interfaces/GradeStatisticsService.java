@@ -0,0 +1,17 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeStatisticsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EStatisticsScope;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeEntity;
+
+import java.util.Collection;
+
+public interface GradeStatisticsService {
+
+    GradeStatisticsDto getStatistics(EStatisticsScope scope, Integer ownerId);
+    void gradesChanged(Collection<GradeEntity> grades);
+    void gradeCardsChanged(Collection<GradeCardEntity> gradeCards);
+    void schoolClassesChanged(Collection<Integer> schoolClassIds);
+    void invalidateAll();
+}
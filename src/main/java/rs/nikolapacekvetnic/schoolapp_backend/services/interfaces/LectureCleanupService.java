@@ -0,0 +1,9 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
+
+import java.util.Collection;
+
+public interface LectureCleanupService {
+
+    void deleteLectures(Collection<Integer> lectureIds);
+    int purgeOrphans();
+}
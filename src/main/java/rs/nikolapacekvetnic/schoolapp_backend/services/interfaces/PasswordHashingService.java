@@ -0,0 +1,10 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
+
+import java.util.List;
+
+public interface PasswordHashingService {
+
+    String encode(String rawPassword);
+    List<String> encodeAll(List<String> rawPasswords);
+    boolean matches(String rawPassword, String encodedPassword);
+}
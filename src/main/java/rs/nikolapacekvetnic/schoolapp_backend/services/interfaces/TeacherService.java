@@ -1,16 +1,20 @@
 package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
 
 import org.springframework.validation.BindingResult;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookPageDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
 
 public interface TeacherService {
 
     TeacherEntity getTeacher(String username);
-    List<GradeCardEntity> getTeacherGradeCards(TeacherEntity teacher);
+    Integer getTeacherId(String username);
+    GradebookPageDto getGradebookPage(Integer teacherId, GradebookFilterDto filter);
+    void streamGradebook(Integer teacherId, GradebookFilterDto filter, OutputStream out) throws IOException;
     TeacherEntity updateTeacher(Integer id, TeacherRegisterDto teacherDTO, BindingResult result);
     void deleteTeacher(Integer id);
 }
@@ -0,0 +1,10 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
+
+public interface TokenEpochService {
+
+    boolean isCurrent(String username, Integer tokenEpoch);
+
+    void revokeTokens(UserEntity user, String previousUsername);
+}
@@ -2,6 +2,7 @@ package rs.nikolapacekvetnic.schoolapp_backend.services.interfaces;
 
 import org.springframework.validation.BindingResult;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.AdminEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ParentEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
@@ -9,6 +10,10 @@ import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ParentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.StudentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 public interface UserRegistrationService {
 
@@ -16,4 +21,5 @@ public interface UserRegistrationService {
     TeacherEntity addNewTeacher(TeacherRegisterDto teacherRegisterDto, BindingResult result);
     ParentEntity addNewParent(ParentRegisterDto parentRegisterDto, BindingResult result);
     StudentEntity addNewStudent(StudentRegisterDto studentRegisterDto, BindingResult result);
+    UserImportResultDto importUsers(EUserRole role, InputStream csv) throws IOException;
 }
@@ -0,0 +1,87 @@
+package rs.nikolapacekvetnic.schoolapp_backend.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvUtil {
+
+	/*
+	 * RFC 4180 style CSV: fields containing a separator, a quote or a line
+	 * break are quoted, with quotes doubled; null is written as an empty
+	 * field.
+	 */
+
+	private CsvUtil() {
+	}
+
+	public static String toLine(Object... values) {
+		StringBuilder line = new StringBuilder();
+
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				line.append(',');
+			if (values[i] != null)
+				line.append(escape(values[i].toString()));
+		}
+
+		return line.append("\r\n").toString();
+	}
+
+	public static String escape(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+			return value;
+
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/*
+	 * Reads the next record, or returns null at the end of the input.
+	 * Quoted fields may contain separators, doubled quotes and line
+	 * breaks; both \n and \r\n end a record.
+	 */
+	public static List<String> readRecord(BufferedReader in) throws IOException {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		boolean any = false;
+		int c;
+
+		while ((c = in.read()) != -1) {
+			any = true;
+
+			if (quoted) {
+				if (c != '"') {
+					field.append((char) c);
+					continue;
+				}
+
+				in.mark(1);
+				int next = in.read();
+				if (next == '"') {
+					field.append('"');
+				} else {
+					quoted = false;
+					if (next != -1)
+						in.reset();
+				}
+			} else if (c == '"' && field.length() == 0) {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\n') {
+				break;
+			} else if (c != '\r') {
+				field.append((char) c);
+			}
+		}
+
+		if (!any)
+			return null;
+
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -4,13 +4,15 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 public class Encryption {
 
+	// the encoder is thread-safe, so a single instance is shared instead of building one per call
+	private static final BCryptPasswordEncoder ENCODER = new BCryptPasswordEncoder();
+
 	public static String getPassEncoded(String pass) {
-		return new BCryptPasswordEncoder().encode(pass);
+		return ENCODER.encode(pass);
 	}
 	
 	public static boolean validatePassword(String pass, String encodedPass) {
-		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-		return encoder.matches(pass, encodedPass);
+		return ENCODER.matches(pass, encodedPass);
 	}
 	
 	public static void main(String[] args) {
@@ -0,0 +1,87 @@
+package rs.nikolapacekvetnic.schoolapp_backend.utils;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+public class ExpiringCache<K, V> {
+
+	/*
+	 * Small bounded in-memory cache in which every entry carries its own
+	 * expiry instant. Expired entries are never returned; when the cache
+	 * is full, expired entries are dropped first and then an arbitrary
+	 * tenth of the remaining ones.
+	 */
+
+	private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final int maxSize;
+	private final LongSupplier clock;
+
+	public ExpiringCache(int maxSize) {
+		this(maxSize, System::currentTimeMillis);
+	}
+
+	public ExpiringCache(int maxSize, LongSupplier clock) {
+		this.maxSize = maxSize;
+		this.clock = clock;
+	}
+
+	public V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null)
+			return null;
+
+		if (entry.expiresAt <= clock.getAsLong()) {
+			entries.remove(key, entry);
+			return null;
+		}
+
+		return entry.value;
+	}
+
+	public void put(K key, V value, long expiresAt) {
+		if (expiresAt <= clock.getAsLong())
+			return;
+
+		if (entries.size() >= maxSize)
+			makeRoom();
+
+		entries.put(key, new Entry<>(value, expiresAt));
+	}
+
+	public void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private void makeRoom() {
+		long now = clock.getAsLong();
+		entries.values().removeIf(e -> e.expiresAt <= now);
+
+		int toEvict = entries.size() - maxSize + Math.max(1, maxSize / 10);
+		Iterator<K> it = entries.keySet().iterator();
+		while (toEvict-- > 0 && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private static class Entry<V> {
+
+		private final V value;
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package rs.nikolapacekvetnic.schoolapp_backend.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ChildGradeSummaryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.LatestGradeDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.LatestGradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SubjectAverageDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SubjectAverageRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
+
+public class GradeViewMapper {
+
+	// groups flat rows (already ordered by grade card) into one view per grade card
+	public static List<GradeCardViewDto> toGradeCards(List<GradeRowDto> rows) {
+		
+		Map<Integer, GradeRowDto> cards = new LinkedHashMap<>();
+		Map<Integer, List<GradeViewDto>> grades = new LinkedHashMap<>();
+		
+		for (GradeRowDto row : rows) {
+			cards.putIfAbsent(row.getGradeCardId(), row);
+			List<GradeViewDto> cardGrades = grades.computeIfAbsent(row.getGradeCardId(), id -> new ArrayList<>());
+			
+			if (row.getGradeId() != null)
+				cardGrades.add(new GradeViewDto(row.getGradeId(), row.getGrade(), row.getDate()));
+		}
+		
+		List<GradeCardViewDto> views = new ArrayList<>(cards.size());
+		
+		cards.forEach((id, row) -> views.add(new GradeCardViewDto(id, row.getStudentId(), row.getLectureId(),
+				row.getYear(), row.getSemester(), row.getSubjectId(), row.getSubjectName(), teacherName(row),
+				row.getPresent(), row.getAbsent(), Collections.unmodifiableList(grades.get(id)))));
+		
+		return views;
+	}
+	
+	// builds one summary per child from rows the database already limited (latest grades) and aggregated (averages)
+	public static List<ChildGradeSummaryDto> toChildSummaries(Collection<StudentEntity> children,
+			List<LatestGradeRowDto> latestRows, List<SubjectAverageRowDto> averageRows) {
+		
+		Map<Integer, List<LatestGradeDto>> latestGrades = new HashMap<>();
+		Map<Integer, List<SubjectAverageDto>> subjectAverages = new HashMap<>();
+		
+		for (LatestGradeRowDto row : latestRows)
+			latestGrades.computeIfAbsent(row.getStudentId(), id -> new ArrayList<>())
+					.add(new LatestGradeDto(row.getSubjectId(), row.getSubjectName(), row.getGrade(), row.getDate()));
+		
+		for (SubjectAverageRowDto row : averageRows)
+			subjectAverages.computeIfAbsent(row.getStudentId(), id -> new ArrayList<>())
+					.add(new SubjectAverageDto(row.getSubjectId(), row.getSubjectName(), row.getGradeCount().intValue(),
+							Math.round(row.getAverage() * 100) / 100.0));
+		
+		List<ChildGradeSummaryDto> summaries = new ArrayList<>(children.size());
+		
+		for (StudentEntity child : children)
+			summaries.add(new ChildGradeSummaryDto(child.getId(), child.getFirstName(), child.getLastName(),
+					latestGrades.getOrDefault(child.getId(), Collections.emptyList()),
+					subjectAverages.getOrDefault(child.getId(), Collections.emptyList())));
+		
+		summaries.sort(Comparator.comparing(ChildGradeSummaryDto::getLastName, Comparator.nullsLast(Comparator.naturalOrder()))
+				.thenComparing(ChildGradeSummaryDto::getFirstName, Comparator.nullsLast(Comparator.naturalOrder())));
+		
+		return summaries;
+	}
+	
+	private static String teacherName(GradeRowDto row) {
+		if (row.getTeacherLastName() == null)
+			return null;
+		return row.getTeacherFirstName() + " " + row.getTeacherLastName();
+	}
+}
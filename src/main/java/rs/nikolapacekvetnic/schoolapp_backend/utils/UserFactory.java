@@ -14,14 +14,14 @@ import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
 public class UserFactory {
 
 	
-	public static UserEntity createUser(UserRegisterDto userDTO) {
+	public static UserEntity createUser(UserRegisterDto userDTO, String encodedPassword) {
 		
 		if (userDTO.getRole() == EUserRole.ADMIN) {
 			
 			AdminEntity admin = new AdminEntity();
 			
 			admin.setUsername(userDTO.getUsername());
-			admin.setPassword(userDTO.getPassword());
+			admin.setPassword(encodedPassword);
 			admin.setRole(userDTO.getRole());
 			
 			return admin;
@@ -35,7 +35,7 @@ public class UserFactory {
 			teacher.setLastName(teacherDTO.getLastName());
 			teacher.setEmail(teacherDTO.getEmail());
 			teacher.setUsername(teacherDTO.getUsername());
-			teacher.setPassword(Encryption.getPassEncoded(teacherDTO.getPassword()));
+			teacher.setPassword(encodedPassword);
 			teacher.setRole(teacherDTO.getRole());
 			
 			return teacher;
@@ -49,7 +49,7 @@ public class UserFactory {
 			parent.setLastName(parentDTO.getLastName());
 			parent.setEmail(parentDTO.getEmail());
 			parent.setUsername(parentDTO.getUsername());
-			parent.setPassword(Encryption.getPassEncoded(parentDTO.getPassword()));
+			parent.setPassword(encodedPassword);
 			parent.setRole(parentDTO.getRole());
 			
 			return parent;
@@ -63,7 +63,7 @@ public class UserFactory {
 			student.setLastName(studentDTO.getLastName());
 			student.setJmbg(studentDTO.getJmbg());
 			student.setUsername(studentDTO.getUsername());
-			student.setPassword(Encryption.getPassEncoded(studentDTO.getPassword()));
+			student.setPassword(encodedPassword);
 			student.setRole(studentDTO.getRole());
 			
 			return student;
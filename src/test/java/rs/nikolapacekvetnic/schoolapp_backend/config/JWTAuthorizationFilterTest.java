@@ -0,0 +1,96 @@
+package rs.nikolapacekvetnic.schoolapp_backend.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import rs.nikolapacekvetnic.schoolapp_backend.utils.ExpiringCache;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JWTAuthorizationFilterTest {
+
+    private static final String SECRET_KEY = "YourSecretKeyForTesting";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExpiringCache<String, Authentication> cache = new ExpiringCache<>(100);
+    private final AtomicInteger currentEpoch = new AtomicInteger(0);
+    private final JWTAuthorizationFilter filter = new JWTAuthorizationFilter(SECRET_KEY, cache,
+            (username, epoch) -> epoch != null && epoch == currentEpoch.get(), registry);
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void whenSameTokenTwice_thenSecondRequestIsServedFromCache() throws Exception {
+        String token = createToken(60_000);
+
+        doFilter(token);
+        doFilter(token);
+
+        assertEquals(1.0, registry.get("jwt.authentication.cache").tag("result", "miss").counter().count());
+        assertEquals(1.0, registry.get("jwt.authentication.cache").tag("result", "hit").counter().count());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void whenValidToken_thenAuthenticationCarriesAuthorities() throws Exception {
+        doFilter(createToken(60_000));
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("student1", auth.getName());
+        assertEquals("STUDENT", auth.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    public void whenTokenExpired_thenForbiddenAndNotCached() throws Exception {
+        MockHttpServletResponse response = doFilter(createToken(-1_000));
+
+        assertEquals(403, response.getStatus());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void whenEpochBumped_thenCachedTokenIsRejected() throws Exception {
+        String token = createToken(60_000);
+
+        doFilter(token);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        currentEpoch.incrementAndGet();
+        doFilter(token);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletResponse doFilter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        return response;
+    }
+
+    private String createToken(long validForMs) {
+        return Jwts.builder().setSubject("student1")
+                .claim("authorities", Collections.singletonList("STUDENT"))
+                .claim("epoch", 0)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + validForMs))
+                .signWith(SignatureAlgorithm.HS512, SECRET_KEY.getBytes()).compact();
+    }
+}
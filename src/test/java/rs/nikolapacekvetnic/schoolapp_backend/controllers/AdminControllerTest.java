@@ -11,8 +11,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.validation.BindingResult;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserDirectoryEntryDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.AdminEntity;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.AdminService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.JsonUtil;
 
@@ -46,14 +47,18 @@ public class AdminControllerTest {
 
     @Test
     public void whenGetAllUsers_thenReturnUserList() throws Exception {
-        List<UserEntity> users = new ArrayList<>();
-        users.add(new UserEntity());
+        List<UserDirectoryEntryDto> users = new ArrayList<>();
+        users.add(new UserDirectoryEntryDto(1, "student1", EUserRole.STUDENT, "Ana Jovic"));
 
-        when(adminService.getAllUsers()).thenReturn(users);
+        when(adminService.getUserDirectory(EUserRole.STUDENT, 1, 20)).thenReturn(users);
 
-        mockMvc.perform(get("/api/v1/project/admin/users"))
+        mockMvc.perform(get("/api/v1/project/admin/users")
+                        .param("role", "STUDENT")
+                        .param("page", "1")
+                        .param("size", "20"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(users.size())));
+                .andExpect(jsonPath("$", hasSize(users.size())))
+                .andExpect(jsonPath("$[0].displayName").value("Ana Jovic"));
     }
 
     @Test
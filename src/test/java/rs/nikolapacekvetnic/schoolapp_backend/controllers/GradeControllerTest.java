@@ -9,7 +9,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeAggregateDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EGradeAggregateScope;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.JsonUtil;
 
@@ -18,6 +21,7 @@ import java.util.Objects;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +30,7 @@ public class GradeControllerTest {
     private MockMvc mockMvc;
 
     @Mock private GradeService gradeService;
+    @Mock private GradeAggregateService gradeAggregateService;
     @InjectMocks private GradeController gradeController;
 
     @BeforeEach
@@ -56,4 +61,19 @@ public class GradeControllerTest {
         mockMvc.perform(delete("/api/v1/project/grade/{id}", gradeId))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void whenGetLectureAggregate_thenReturnsStatistics() throws Exception {
+        GradeAggregateDto aggregate = GradeAggregateDto.of(EGradeAggregateScope.LECTURE, 1, 2021, null, new int[] { 0, 1, 0, 1, 2 });
+
+        when(gradeAggregateService.getLectureAggregate(1)).thenReturn(aggregate);
+
+        mockMvc.perform(get("/api/v1/project/grade/aggregates/lecture/{id}", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(4))
+                .andExpect(jsonPath("$.sum").value(16))
+                .andExpect(jsonPath("$.min").value(2))
+                .andExpect(jsonPath("$.max").value(5))
+                .andExpect(jsonPath("$.average").value(4.0));
+    }
 }
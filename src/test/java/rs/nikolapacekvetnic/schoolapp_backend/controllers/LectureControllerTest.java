@@ -9,15 +9,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeEntryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeResultDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.LectureEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.JsonUtil;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -71,6 +77,21 @@ public class LectureControllerTest {
                 .andExpect(jsonPath("$.id").value(mockLecture.getId()));
     }
 
+    @Test
+    public void whenGradeStudentsInLecture_thenReturnResults() throws Exception {
+        List<GradeEntryDto> grades = Arrays.asList(new GradeEntryDto(1, 5), new GradeEntryDto(2, 9));
+
+        when(gradeService.gradeStudentsInLecture(eq(1), anyList())).thenReturn(Arrays.asList(
+                GradeResultDto.created(1, 10), GradeResultDto.rejected(2, "Invalid grade.")));
+
+        mockMvc.perform(put("/api/v1/project/lectures/grade/in/{lectureId}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(Objects.requireNonNull(JsonUtil.convertToJson(grades))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].gradeId").value(10))
+                .andExpect(jsonPath("$[1].status").value(GradeResultDto.REJECTED));
+    }
+
     @Test
     public void whenDisconnectSubjectWithTeacher_thenReturnLecture() throws Exception {
         Integer subjectId = 1, teacherId = 1;
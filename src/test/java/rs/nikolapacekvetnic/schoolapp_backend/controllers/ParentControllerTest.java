@@ -9,16 +9,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ChildGradeSummaryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ParentEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.services.UserLoginServiceImpl;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.ParentService;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -53,10 +58,10 @@ public class ParentControllerTest {
     @Test
     public void whenGetGradeCards_thenReturnGradeCardList() throws Exception {
         String username = "parent.username";
-        List<Set<GradeCardEntity>> gradeCardsList = new ArrayList<>();
+        List<GradeCardViewDto> gradeCardsList = new ArrayList<>();
 
         when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
-        when(parentService.getGradeCards(username)).thenReturn(gradeCardsList);
+        when(parentService.getGradeCards(eq(username), any(GradeFilterDto.class))).thenReturn(gradeCardsList);
 
         mockMvc.perform(get("/api/v1/project/parents/grades"))
                 .andExpect(status().isOk())
@@ -67,12 +72,28 @@ public class ParentControllerTest {
     public void whenGetGradeCardsForSubject_thenReturnFilteredGradeCardList() throws Exception {
         String username = "parent.username";
         Integer subjectId = 1;
-        List<GradeCardEntity> gradeCards = new ArrayList<>();
+        List<GradeCardViewDto> gradeCards = new ArrayList<>();
 
         when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
-        when(parentService.getGradeCardsForSubject(username, subjectId)).thenReturn(gradeCards);
+        when(parentService.getGradeCardsForSubject(eq(username), eq(subjectId),
+                argThat(filter -> LocalDate.of(2021, 9, 1).equals(filter.getFrom())))).thenReturn(gradeCards);
 
-        mockMvc.perform(get("/api/v1/project/parents/grades/" + subjectId))
+        mockMvc.perform(get("/api/v1/project/parents/grades/" + subjectId).param("from", "01-09-2021"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void whenGetDashboard_thenReturnChildSummaries() throws Exception {
+        String username = "parent.username";
+        Integer subjectId = 1;
+        List<ChildGradeSummaryDto> dashboard = new ArrayList<>();
+
+        when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
+        when(parentService.getDashboard(eq(username), argThat(filter -> subjectId.equals(filter.getSubjectId()))))
+                .thenReturn(dashboard);
+
+        mockMvc.perform(get("/api/v1/project/parents/dashboard").param("subjectId", subjectId.toString()))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
@@ -0,0 +1,57 @@
+package rs.nikolapacekvetnic.schoolapp_backend.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeStatisticsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EStatisticsScope;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class StatisticsControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock private GradeStatisticsService gradeStatisticsService;
+    @InjectMocks private StatisticsController statisticsController;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(statisticsController).build();
+    }
+
+    @Test
+    public void whenGetClassStatistics_thenReturnsDistribution() throws Exception {
+        GradeStatisticsDto statistics = GradeStatisticsDto.of(EStatisticsScope.SCHOOL_CLASS, 2, new long[] { 1, 0, 2, 0, 1 }, 3, 30, 10);
+
+        when(gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 2)).thenReturn(statistics);
+
+        mockMvc.perform(get("/api/v1/project/statistics/classes/{id}", 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gradeCount").value(4))
+                .andExpect(jsonPath("$.threes").value(2))
+                .andExpect(jsonPath("$.average").value(3.0))
+                .andExpect(jsonPath("$.attendanceRatio").value(0.75));
+    }
+
+    @Test
+    public void whenGetLectureStatistics_Unauthorized_thenReturnsError() throws Exception {
+        when(gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1))
+                .thenThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized request."));
+
+        mockMvc.perform(get("/api/v1/project/statistics/lectures/{id}", 1))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -10,8 +10,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.validation.BindingResult;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.StudentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.StudentService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
@@ -56,10 +58,10 @@ public class StudentControllerTest {
     @Test
     public void whenGetGradeCards_thenReturnGradeCards() throws Exception {
         String username = "student1";
-        Set<GradeCardEntity> gradeCards = new HashSet<>(); // Mock the grade card set
+        List<GradeCardViewDto> gradeCards = new ArrayList<>(); // Mock the grade card list
 
         when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
-        when(studentService.getGradeCards(username)).thenReturn(gradeCards);
+        when(studentService.getGradeCards(eq(username), any(GradeFilterDto.class))).thenReturn(gradeCards);
 
         mockMvc.perform(get("/api/v1/project/student/grades"))
                 .andExpect(status().isOk());
@@ -69,12 +71,15 @@ public class StudentControllerTest {
     public void whenGetGradeCardsForSubject_thenReturnGradeCards() throws Exception {
         String username = "student1";
         Integer subjectId = 1;
-        List<GradeCardEntity> gradeCards = new ArrayList<>(); // Mock the grade card list
+        List<GradeCardViewDto> gradeCards = new ArrayList<>(); // Mock the grade card list
 
         when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
-        when(studentService.getGradeCardsForSubject(username, subjectId)).thenReturn(gradeCards);
+        when(studentService.getGradeCardsForSubject(eq(username), eq(subjectId),
+                argThat(filter -> filter.getSemester() == ESemester.SUMMER && filter.getYear() == 2021))).thenReturn(gradeCards);
 
-        mockMvc.perform(get("/api/v1/project/student/grades/" + subjectId))
+        mockMvc.perform(get("/api/v1/project/student/grades/" + subjectId)
+                        .param("year", "2021")
+                        .param("semester", "SUMMER"))
                 .andExpect(status().isOk());
     }
 
@@ -6,20 +6,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookPageDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.services.UserLoginServiceImpl;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TeacherService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.JsonUtil;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -55,16 +56,28 @@ public class TeacherControllerTest {
     }
 
     @Test
-    public void whenGetGradeCards_thenReturnGradeCardsList() throws Exception {
-        TeacherEntity teacher = new TeacherEntity(); // Set up teacher entity
-        List<GradeCardEntity> gradeCards = new ArrayList<>(); // Set up grade cards list
+    public void whenGetGradeCards_thenReturnGradebookPage() throws Exception {
+        GradebookPageDto page = new GradebookPageDto(new ArrayList<>(), 42); // Set up grade card page
         when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of("teacherUsername"));
-        when(teacherService.getTeacher(anyString())).thenReturn(teacher);
-        when(teacherService.getTeacherGradeCards(teacher)).thenReturn(gradeCards);
+        when(teacherService.getTeacherId("teacherUsername")).thenReturn(3);
+        when(teacherService.getGradebookPage(eq(3), argThat(filter -> filter.getAfter() == 17 && filter.getSize() == 20)))
+                .thenReturn(page);
 
-        mockMvc.perform(get("/api/v1/project/teacher/grades"))
+        mockMvc.perform(get("/api/v1/project/teacher/grades").param("after", "17").param("size", "20"))
                 .andExpect(status().isOk())
-                .andExpect(content().json(Objects.requireNonNull(JsonUtil.convertToJson(gradeCards))));
+                .andExpect(content().json(Objects.requireNonNull(JsonUtil.convertToJson(page))));
+        verify(teacherService, never()).getTeacher(anyString());
+    }
+
+    @Test
+    public void whenGetGradeCards_NotATeacher_thenReturnError() throws Exception {
+        when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of("studentUsername"));
+        when(teacherService.getTeacherId(anyString()))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not a teacher."));
+
+        mockMvc.perform(get("/api/v1/project/teacher/grades"))
+                .andExpect(status().isBadRequest());
+        verify(teacherService, never()).getGradebookPage(any(), any());
     }
 
     @Test
@@ -1,28 +1,39 @@
 package rs.nikolapacekvetnic.schoolapp_backend.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.AdminEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EExportFormat;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeExportRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserDirectoryEntryDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.AdminRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
 import javax.validation.ValidationException;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,29 +47,155 @@ public class AdminServiceImplTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private GradeRepository gradeRepository;
+    @Mock
     private UserLoginService userLoginService;
     @Mock
     private UserCustomValidator userValidator;
+    @Mock
+    private TokenEpochService tokenEpochService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
     @InjectMocks
     private AdminServiceImpl adminService;
 
     @Test
-    void getAllUsersTest() {
+    void getUserDirectoryTest() {
         when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
 
-        List<UserEntity> userEntities = new ArrayList<>();
-        userEntities.add(new UserEntity());
-        when(userRepository.findAll()).thenReturn(userEntities);
+        List<UserDirectoryEntryDto> entries = new ArrayList<>();
+        entries.add(new UserDirectoryEntryDto(1, "teacher1", EUserRole.TEACHER, "Ana Petrovic"));
+        when(userRepository.findDirectoryPage(EUserRole.TEACHER, 2, 500)).thenReturn(entries);
 
-        List<UserEntity> result = adminService.getAllUsers();
+        List<UserDirectoryEntryDto> result = adminService.getUserDirectory(EUserRole.TEACHER, 2, 10000);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
-        verify(userRepository).findAll();
+        verify(userRepository).findDirectoryPage(EUserRole.TEACHER, 2, 500);
+        verify(userRepository, never()).findAll();
         verify(userLoginService).isAuthorizedAs(EUserRole.ADMIN);
     }
 
+    @Test
+    void getUserDirectory_DefaultPage_thenReadFirstPage() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(userRepository.findDirectoryPage(null, 0, 50)).thenReturn(new ArrayList<>());
+
+        List<UserDirectoryEntryDto> result = adminService.getUserDirectory(null, null, null);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getUserDirectory_NotAdmin_thenThrowException() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> adminService.exportUserDirectory(null));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void exportUserDirectoryTest() throws IOException {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<UserDirectoryEntryDto> consumer = invocation.getArgument(1);
+            consumer.accept(new UserDirectoryEntryDto(1, "admin1", EUserRole.ADMIN, "admin1"));
+            consumer.accept(new UserDirectoryEntryDto(2, "parent1", EUserRole.PARENT, "Mila Jovic"));
+            return null;
+        }).when(userRepository).streamDirectory(isNull(), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        adminService.exportUserDirectory(null).writeTo(out);
+
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"displayName\":\"Mila Jovic\""));
+    }
+
+    private static GradeExportRowDto exportRow(int gradeId, String lastName) {
+        return new GradeExportRowDto(gradeId, 5, LocalDate.of(2021, 11, 3), 7, "0101005710012", "Mila", lastName,
+                3, 2, "Matematika", 4, 2021, ESemester.WINTER);
+    }
+
+    @Test
+    void exportGrades_Csv_thenWritesHeaderAndEscapedRows() throws IOException {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<GradeExportRowDto> consumer = invocation.getArgument(2);
+            consumer.accept(exportRow(1, "Jovic"));
+            consumer.accept(exportRow(2, "Jovic, \"Mala\""));
+            return null;
+        }).when(gradeRepository).streamGrades(eq(2021), eq(ESemester.WINTER), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        adminService.exportGrades(2021, ESemester.WINTER, EExportFormat.CSV).writeTo(out);
+
+        String[] lines = out.toString("UTF-8").split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("gradeId,grade,date,"));
+        assertEquals("1,5,2021-11-03,7,0101005710012,Mila,Jovic,3,2,Matematika,4,2021,WINTER", lines[1]);
+        assertTrue(lines[2].contains(",\"Jovic, \"\"Mala\"\"\","));
+    }
+
+    @Test
+    void exportGrades_Ndjson_thenWritesOneObjectPerLine() throws IOException {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<GradeExportRowDto> consumer = invocation.getArgument(2);
+            consumer.accept(exportRow(1, "Jovic"));
+            return null;
+        }).when(gradeRepository).streamGrades(eq(2021), isNull(), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        adminService.exportGrades(2021, null, EExportFormat.NDJSON).writeTo(out);
+
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].contains("\"date\":\"03-11-2021\""));
+    }
+
+    @Test
+    void exportGrades_WritesRowsWhileCursorIsOpen() throws IOException {
+        // rows must reach the response as they are read, not after the whole year has been collected
+        long[] written = new long[1];
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written[0] += len;
+            }
+        };
+
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<GradeExportRowDto> consumer = invocation.getArgument(2);
+            for (int i = 0; i < 100_000; i++) {
+                consumer.accept(exportRow(i, "Jovic"));
+                if (i == 10_000)
+                    assertTrue(written[0] > 0);
+            }
+            return null;
+        }).when(gradeRepository).streamGrades(eq(2021), isNull(), any());
+
+        adminService.exportGrades(2021, null, EExportFormat.CSV).writeTo(sink);
+
+        assertTrue(written[0] > 100_000L * 60);
+    }
+
+    @Test
+    void exportGrades_NotAdmin_thenThrowException() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> adminService.exportGrades(2021, null, EExportFormat.CSV));
+        verifyNoInteractions(gradeRepository);
+    }
+
     @Test
     void getLogsTest() throws IOException {
         when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
@@ -95,9 +232,10 @@ public class AdminServiceImplTest {
         AdminEntity updatedAdmin = adminService.updateAdmin(adminId, adminDto, bindingResult);
 
         assertNotNull(updatedAdmin);
-        assertEquals("newAdmin", updatedAdmin.getUsername());
+        assertEquals("newadmin", updatedAdmin.getUsername());
         assertEquals("newPassword", updatedAdmin.getPassword());
-        verify(adminRepository).save(updatedAdmin);
+        verify(tokenEpochService).revokeTokens(existingAdmin, "oldadmin");
+        verify(adminRepository, never()).save(updatedAdmin);
     }
 
     @Test
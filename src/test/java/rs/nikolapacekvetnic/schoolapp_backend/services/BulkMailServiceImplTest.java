@@ -0,0 +1,89 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailObject;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkMailServiceImplTest {
+
+    private final RecordingMailSender mailSender = new RecordingMailSender();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BulkMailServiceImpl bulkMailService = new BulkMailServiceImpl(mailSender, 2, 2, 1, registry);
+
+    @AfterEach
+    public void tearDown() {
+        bulkMailService.shutdown();
+    }
+
+    @Test
+    public void whenManyMessages_thenOneConnectionPerChunk() {
+        List<EmailObject> objects = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            objects.add(new EmailObject("parent" + i + "@example.com", "subject", "text"));
+
+        Map<EmailObject, Exception> failures = bulkMailService.sendAll(objects);
+
+        assertTrue(failures.isEmpty());
+        assertEquals(3, mailSender.connections.size());
+        assertEquals(5, mailSender.connections.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(5.0, registry.get("mail.bulk.messages").tag("result", "sent").counter().count());
+    }
+
+    @Test
+    public void whenSingleRecipientRejected_thenOnlyThatMessageFails() {
+        EmailObject accepted = new EmailObject("parent@example.com", "subject", "text");
+        EmailObject rejected = new EmailObject("nobody@example.com", "subject", "text");
+        mailSender.rejectedRecipient = "nobody@example.com";
+
+        Map<EmailObject, Exception> failures = bulkMailService.sendAll(Arrays.asList(accepted, rejected));
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(rejected));
+        assertEquals(1.0, registry.get("mail.bulk.messages").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    public void whenConnectionFails_thenWholeChunkFails() {
+        mailSender.connectionFailure = new MailAuthenticationException("bad credentials");
+
+        Map<EmailObject, Exception> failures = bulkMailService.sendAll(Arrays.asList(
+                new EmailObject("a@example.com", "subject", "text"),
+                new EmailObject("b@example.com", "subject", "text")));
+
+        assertEquals(2, failures.size());
+    }
+
+    private static class RecordingMailSender extends JavaMailSenderImpl {
+
+        // one entry per simulated SMTP connection, holding the number of messages sent over it
+        private final List<Integer> connections = Collections.synchronizedList(new ArrayList<>());
+        private volatile String rejectedRecipient;
+        private volatile MailException connectionFailure;
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            if (connectionFailure != null)
+                throw connectionFailure;
+
+            connections.add(simpleMessages.length);
+
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (SimpleMailMessage message : simpleMessages)
+                if (Objects.equals(rejectedRecipient, message.getTo()[0]))
+                    failed.put(message, new IllegalArgumentException("Recipient rejected."));
+
+            if (!failed.isEmpty())
+                throw new MailSendException(failed);
+        }
+    }
+}
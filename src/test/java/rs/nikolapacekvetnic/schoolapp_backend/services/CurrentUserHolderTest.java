@@ -0,0 +1,60 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CurrentUserHolderTest {
+
+    @Mock private UserRepository userRepository;
+    @InjectMocks private CurrentUserHolder currentUserHolder;
+
+    @Test
+    public void whenLookedUpRepeatedly_thenQueriesOnce() {
+        StudentEntity student = new StudentEntity();
+        student.setUsername("studentUsername");
+        student.setRole(EUserRole.STUDENT);
+
+        when(userRepository.findByUsername("studentusername")).thenReturn(Optional.of(student));
+
+        for (int i = 0; i < 3; i++)
+            assertSame(student, currentUserHolder.findByUsername("studentusername").get());
+
+        verify(userRepository, times(1)).findByUsername("studentusername");
+    }
+
+    @Test
+    public void whenCredentialsLookedUpRepeatedly_thenQueriesOnceWithoutLoadingEntity() {
+        UserCredentialsDto credentials = new UserCredentialsDto(1, "studentusername", "hash", EUserRole.STUDENT, 0);
+
+        when(userRepository.findCredentialsByUsername("studentusername")).thenReturn(Optional.of(credentials));
+
+        for (int i = 0; i < 3; i++)
+            assertSame(credentials, currentUserHolder.findCredentials("studentusername").get());
+
+        verify(userRepository, times(1)).findCredentialsByUsername("studentusername");
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    public void whenUserMissing_thenEmptyResultIsAlsoMemoized() {
+        when(userRepository.findByUsername("nobody")).thenReturn(Optional.empty());
+
+        assertFalse(currentUserHolder.findByUsername("nobody").isPresent());
+        assertFalse(currentUserHolder.findByUsername("nobody").isPresent());
+
+        verify(userRepository, times(1)).findByUsername("nobody");
+    }
+}
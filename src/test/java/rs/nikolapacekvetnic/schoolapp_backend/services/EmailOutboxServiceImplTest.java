@@ -0,0 +1,132 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EOutboxStatus;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailObject;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EmailOutboxEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.EmailOutboxRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.BulkMailService;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxServiceImplTest {
+
+    @Mock private EmailOutboxRepository emailOutboxRepository;
+    @Mock private BulkMailService bulkMailService;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:00:00Z"), ZoneOffset.UTC);
+    private final LocalDateTime now = LocalDateTime.now(clock);
+    private EmailOutboxServiceImpl emailOutboxService;
+
+    @BeforeEach
+    public void setUp() {
+        emailOutboxService = new EmailOutboxServiceImpl(emailOutboxRepository, bulkMailService, 50, 3, 1_000L, 3_000L, clock);
+    }
+
+    @Test
+    public void whenEnqueued_thenStoredAsPendingAndNotSent() {
+        emailOutboxService.enqueue(new EmailObject("parent@example.com", "subject", "text"));
+
+        verify(emailOutboxRepository).save(argThat(email ->
+                email.getStatus() == EOutboxStatus.PENDING && now.equals(email.getNextAttemptAt())));
+        verifyNoInteractions(bulkMailService);
+    }
+
+    @Test
+    public void whenSendSucceeds_thenMarkedSent() {
+        EmailOutboxEntity email = pending();
+        when(emailOutboxRepository.findDue(eq(EOutboxStatus.PENDING), eq(now), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(email));
+
+        when(bulkMailService.sendAll(anyList())).thenReturn(Collections.emptyMap());
+
+        assertEquals(1, emailOutboxService.dispatchDue());
+
+        verify(bulkMailService, times(1)).sendAll(anyList());
+        assertEquals(EOutboxStatus.SENT, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertEquals(now, email.getSentAt());
+    }
+
+    @Test
+    public void whenSendFails_thenRetriedWithBackoff() {
+        EmailOutboxEntity email = pending().setAttempts(1);
+        when(emailOutboxRepository.findDue(eq(EOutboxStatus.PENDING), eq(now), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(email));
+        when(bulkMailService.sendAll(anyList())).thenAnswer(invocation -> failAll(invocation.getArgument(0)));
+
+        emailOutboxService.dispatchDue();
+
+        assertEquals(EOutboxStatus.PENDING, email.getStatus());
+        assertEquals(2, email.getAttempts());
+        assertEquals(now.plusSeconds(2), email.getNextAttemptAt());
+        assertEquals("smtp down", email.getLastError());
+    }
+
+    @Test
+    public void whenMaxAttemptsReached_thenMarkedDead() {
+        EmailOutboxEntity email = pending().setAttempts(2);
+        when(emailOutboxRepository.findDue(eq(EOutboxStatus.PENDING), eq(now), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(email));
+        when(bulkMailService.sendAll(anyList())).thenAnswer(invocation -> failAll(invocation.getArgument(0)));
+
+        emailOutboxService.dispatchDue();
+
+        assertEquals(EOutboxStatus.DEAD, email.getStatus());
+        assertEquals(3, email.getAttempts());
+    }
+
+    @Test
+    public void whenBackoffGrows_thenCappedAtMaximum() {
+        assertEquals(1_000L, emailOutboxService.backoffFor(1));
+        assertEquals(2_000L, emailOutboxService.backoffFor(2));
+        assertEquals(3_000L, emailOutboxService.backoffFor(3));
+        assertEquals(3_000L, emailOutboxService.backoffFor(40));
+    }
+
+    @Test
+    public void whenNothingDue_thenNothingSent() {
+        when(emailOutboxRepository.findDue(eq(EOutboxStatus.PENDING), eq(now), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(0, emailOutboxService.dispatchDue());
+
+        verifyNoInteractions(bulkMailService);
+    }
+
+    private static Map<EmailObject, Exception> failAll(List<EmailObject> objects) {
+        Map<EmailObject, Exception> failures = new IdentityHashMap<>();
+        objects.forEach(object -> failures.put(object, new MailSendException("smtp down")));
+        return failures;
+    }
+
+    private EmailOutboxEntity pending() {
+        return new EmailOutboxEntity()
+                .setRecipient("parent@example.com")
+                .setSubject("subject")
+                .setText("text")
+                .setCreatedAt(now)
+                .setNextAttemptAt(now);
+    }
+}
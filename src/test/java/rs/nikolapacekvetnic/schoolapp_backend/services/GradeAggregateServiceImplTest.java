@@ -0,0 +1,200 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeAggregateDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeAggregateRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.LectureRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.StudentRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GradeAggregateServiceImplTest {
+
+    @Mock
+    private GradeAggregateRepository gradeAggregateRepository;
+    @Mock
+    private GradeCardRepository gradeCardRepository;
+    @Mock
+    private LectureRepository lectureRepository;
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private UserLoginService userLoginService;
+    @Mock
+    private CurrentUserHolder currentUserHolder;
+
+    @InjectMocks private GradeAggregateServiceImpl gradeAggregateService;
+
+    private static GradeEntity grade(GradeCardEntity gradeCard, int value) {
+        GradeEntity grade = new GradeEntity();
+        grade.setGrade(value);
+        grade.setGradeCard(gradeCard);
+        return grade;
+    }
+
+    private static GradeCardEntity gradeCard(Integer id, Integer studentId, LectureEntity lecture) {
+        StudentEntity student = new StudentEntity();
+        student.setId(studentId);
+        GradeCardEntity gradeCard = new GradeCardEntity();
+        gradeCard.setId(id);
+        gradeCard.setStudent(student);
+        gradeCard.setLecture(lecture);
+        return gradeCard;
+    }
+
+    private static LectureEntity lecture(Integer id) {
+        LectureEntity lecture = new LectureEntity();
+        lecture.setId(id);
+        lecture.setYear(2021);
+        lecture.setSemester(ESemester.WINTER);
+        return lecture;
+    }
+
+    @Test
+    public void recordGrades_MergesDeltasPerAggregate() {
+        LectureEntity lecture = lecture(3);
+        GradeCardEntity first = gradeCard(10, 1, lecture);
+        GradeCardEntity second = gradeCard(11, 2, lecture);
+
+        gradeAggregateService.recordGrades(Arrays.asList(grade(first, 5), grade(first, 4), grade(second, 5)));
+
+        verify(gradeAggregateRepository).addToHistogram("GRADE_CARD:10", "GRADE_CARD", 10, 2021, "WINTER", 0, 0, 0, 1, 1);
+        verify(gradeAggregateRepository).addToHistogram("GRADE_CARD:11", "GRADE_CARD", 11, 2021, "WINTER", 0, 0, 0, 0, 1);
+        verify(gradeAggregateRepository).addToHistogram("STUDENT_SEMESTER:1:2021:WINTER", "STUDENT_SEMESTER", 1, 2021, "WINTER", 0, 0, 0, 1, 1);
+        verify(gradeAggregateRepository).addToHistogram("STUDENT_SEMESTER:2:2021:WINTER", "STUDENT_SEMESTER", 2, 2021, "WINTER", 0, 0, 0, 0, 1);
+        // one upsert for the lecture, however many grades it received
+        verify(gradeAggregateRepository).addToHistogram("LECTURE:3", "LECTURE", 3, 2021, "WINTER", 0, 0, 0, 1, 2);
+        verifyNoMoreInteractions(gradeAggregateRepository);
+    }
+
+    @Test
+    public void changeGrade_MovesCountBetweenGrades() {
+        GradeCardEntity gradeCard = gradeCard(10, 1, lecture(3));
+
+        gradeAggregateService.changeGrade(grade(gradeCard, 4), 2);
+
+        verify(gradeAggregateRepository).addToHistogram("GRADE_CARD:10", "GRADE_CARD", 10, 2021, "WINTER", 0, -1, 0, 1, 0);
+        verify(gradeAggregateRepository, times(3)).addToHistogram(anyString(), anyString(), anyInt(), anyInt(), anyString(),
+                eq(0), eq(-1), eq(0), eq(1), eq(0));
+    }
+
+    @Test
+    public void changeGrade_SameValue_WritesNothing() {
+        GradeCardEntity gradeCard = gradeCard(10, 1, lecture(3));
+
+        gradeAggregateService.changeGrade(grade(gradeCard, 4), 4);
+
+        verifyNoInteractions(gradeAggregateRepository);
+    }
+
+    @Test
+    public void removeGrade_WithoutSemester_PassesNullSemester() {
+        LectureEntity lecture = lecture(3);
+        lecture.setSemester(null);
+        GradeCardEntity gradeCard = gradeCard(10, 1, lecture);
+
+        gradeAggregateService.removeGrade(grade(gradeCard, 1));
+
+        verify(gradeAggregateRepository).addToHistogram(eq("STUDENT_SEMESTER:1:2021:null"), eq("STUDENT_SEMESTER"), eq(1), eq(2021), isNull(),
+                eq(-1), eq(0), eq(0), eq(0), eq(0));
+    }
+
+    @Test
+    public void removeGrade_DetachedGradeCard_WritesNothing() {
+        GradeCardEntity gradeCard = gradeCard(10, 1, lecture(3));
+        gradeCard.setLecture(null);
+
+        gradeAggregateService.removeGrade(grade(gradeCard, 5));
+
+        verifyNoInteractions(gradeAggregateRepository);
+    }
+
+    @Test
+    public void removeGrade_LectureTermChanged_UsesTermAtEnrollment() {
+        LectureEntity lecture = lecture(3);
+        GradeCardEntity gradeCard = gradeCard(10, 1, lecture);
+        lecture.setYear(2022);
+        lecture.setSemester(ESemester.SUMMER);
+
+        gradeAggregateService.removeGrade(grade(gradeCard, 5));
+
+        verify(gradeAggregateRepository).addToHistogram("GRADE_CARD:10", "GRADE_CARD", 10, 2021, "WINTER", 0, 0, 0, 0, -1);
+        verify(gradeAggregateRepository).addToHistogram("STUDENT_SEMESTER:1:2021:WINTER", "STUDENT_SEMESTER", 1, 2021, "WINTER", 0, 0, 0, 0, -1);
+        verify(gradeAggregateRepository).addToHistogram("LECTURE:3", "LECTURE", 3, 2022, "SUMMER", 0, 0, 0, 0, -1);
+        verifyNoMoreInteractions(gradeAggregateRepository);
+    }
+
+    @Test
+    public void getLectureAggregate_NoGrades_ReturnsEmptyStatistics() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(lectureRepository.findById(3)).thenReturn(Optional.of(lecture(3)));
+        when(gradeAggregateRepository.findByAggregateKey("LECTURE:3")).thenReturn(Optional.empty());
+
+        GradeAggregateDto aggregate = gradeAggregateService.getLectureAggregate(3);
+
+        assertEquals(Integer.valueOf(0), aggregate.getCount());
+        assertNull(aggregate.getAverage());
+    }
+
+    @Test
+    public void getGradeCardAggregate_ComputesStatisticsFromHistogram() {
+        GradeAggregateEntity entity = new GradeAggregateEntity()
+                .setScope(EGradeAggregateScope.GRADE_CARD).setOwnerId(10).setYear(2021).setSemester(ESemester.WINTER)
+                .setTwos(1).setFours(1).setFives(1);
+
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.findById(10)).thenReturn(Optional.of(gradeCard(10, 1, lecture(3))));
+        when(gradeAggregateRepository.findByAggregateKey("GRADE_CARD:10")).thenReturn(Optional.of(entity));
+
+        GradeAggregateDto aggregate = gradeAggregateService.getGradeCardAggregate(10);
+
+        assertEquals(Integer.valueOf(3), aggregate.getCount());
+        assertEquals(Integer.valueOf(11), aggregate.getSum());
+        assertEquals(Integer.valueOf(2), aggregate.getMin());
+        assertEquals(Integer.valueOf(5), aggregate.getMax());
+        assertEquals(Double.valueOf(3.67), aggregate.getAverage());
+    }
+
+    @Test
+    public void getStudentAggregates_OtherStudent_Unauthorized() {
+        when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of("student"));
+        when(currentUserHolder.findCredentials("student"))
+                .thenReturn(Optional.of(new UserCredentialsDto(1, "student", "x", EUserRole.STUDENT, 0)));
+
+        assertThrows(ResponseStatusException.class, () -> gradeAggregateService.getStudentAggregates(2));
+        verifyNoInteractions(gradeAggregateRepository);
+    }
+
+    @Test
+    public void getStudentAggregates_Parent_ChecksRelationship() {
+        when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of("parent"));
+        when(currentUserHolder.findCredentials("parent"))
+                .thenReturn(Optional.of(new UserCredentialsDto(5, "parent", "x", EUserRole.PARENT, 0)));
+        when(studentRepository.isChildOf(2, 5)).thenReturn(true);
+        when(gradeAggregateRepository.findAllByScopeAndOwnerIdOrderByYearAscSemesterAsc(EGradeAggregateScope.STUDENT_SEMESTER, 2))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(0, gradeAggregateService.getStudentAggregates(2).size());
+    }
+}
@@ -0,0 +1,127 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeDigestEntryRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.EmailOutboxService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GradeNotificationServiceImplTest {
+
+    @Mock private EmailOutboxService emailOutboxService;
+    @Mock private GradeDigestEntryRepository gradeDigestEntryRepository;
+
+    @Test
+    public void whenDigestDisabled_thenEveryParentIsQueuedAnEmail() {
+        GradeNotificationServiceImpl service = new GradeNotificationServiceImpl(emailOutboxService, gradeDigestEntryRepository, false, 500);
+
+        service.notifyParents(studentWithParents("mother@example.com", "father@example.com"), grade(5));
+
+        verify(emailOutboxService).enqueue(argThat(email -> "mother@example.com".equals(email.getTo())));
+        verify(emailOutboxService).enqueue(argThat(email -> "father@example.com".equals(email.getTo())));
+        verifyNoInteractions(gradeDigestEntryRepository);
+    }
+
+    @Test
+    public void whenDigestEnabled_thenEntriesRecordedAndNothingQueued() {
+        GradeNotificationServiceImpl service = new GradeNotificationServiceImpl(emailOutboxService, gradeDigestEntryRepository, true, 500);
+
+        service.notifyParents(studentWithParents("mother@example.com", "father@example.com"), grade(4));
+
+        verify(gradeDigestEntryRepository, times(2)).save(any(GradeDigestEntryEntity.class));
+        verifyNoInteractions(emailOutboxService);
+    }
+
+    @Test
+    public void whenFlushed_thenOneEmailPerParent() {
+        GradeNotificationServiceImpl service = new GradeNotificationServiceImpl(emailOutboxService, gradeDigestEntryRepository, true, 500);
+        when(gradeDigestEntryRepository.findAllForFlush(PageRequest.of(0, 500))).thenReturn(Arrays.asList(
+                entry(1L, "mother@example.com", 5), entry(2L, "mother@example.com", 3), entry(3L, "father@example.com", 4)));
+
+        assertEquals(2, service.flushDigests());
+
+        verify(emailOutboxService).enqueue(argThat(email -> "mother@example.com".equals(email.getTo())
+                && email.getSubject().contains("2 new grade")));
+        verify(emailOutboxService).enqueue(argThat(email -> "father@example.com".equals(email.getTo())));
+        verify(gradeDigestEntryRepository).deleteAllByIds(Arrays.asList(1L, 2L, 3L));
+        verify(gradeDigestEntryRepository, never()).deleteAll(anyIterable());
+    }
+
+    @Test
+    public void whenDigestTooLongForOneEmail_thenSplitToFitOutboxColumn() {
+        GradeNotificationServiceImpl service = new GradeNotificationServiceImpl(emailOutboxService, gradeDigestEntryRepository, true, 500);
+        List<GradeDigestEntryEntity> entries = new ArrayList<>();
+        for (long id = 1; id <= 150; id++)
+            entries.add(entry(id, "mother@example.com", 5));
+        when(gradeDigestEntryRepository.findAllForFlush(PageRequest.of(0, 500))).thenReturn(entries);
+
+        int emails = service.flushDigests();
+
+        ArgumentCaptor<EmailObject> captor = ArgumentCaptor.forClass(EmailObject.class);
+        verify(emailOutboxService, times(emails)).enqueue(captor.capture());
+        assertTrue(emails > 1);
+        assertTrue(captor.getAllValues().stream().allMatch(email -> email.getText().length() <= EmailOutboxEntity.TEXT_LENGTH));
+        assertEquals(150, captor.getAllValues().stream()
+                .mapToInt(email -> email.getText().split("\\R").length - 2)
+                .sum());
+    }
+
+    @Test
+    public void whenNothingPending_thenNothingQueuedOrDeleted() {
+        GradeNotificationServiceImpl service = new GradeNotificationServiceImpl(emailOutboxService, gradeDigestEntryRepository, true, 500);
+        when(gradeDigestEntryRepository.findAllForFlush(PageRequest.of(0, 500))).thenReturn(Collections.emptyList());
+
+        assertEquals(0, service.flushDigests());
+
+        verifyNoInteractions(emailOutboxService);
+        verify(gradeDigestEntryRepository, never()).deleteAllByIds(anyCollection());
+    }
+
+    private static StudentEntity studentWithParents(String... emails) {
+        StudentEntity student = new StudentEntity();
+        student.setFirstName("Pera");
+        student.setLastName("Peric");
+        for (String email : emails) {
+            ParentEntity parent = new ParentEntity();
+            parent.setEmail(email);
+            student.getParents().add(parent);
+        }
+        return student;
+    }
+
+    private static GradeEntity grade(int value) {
+        LectureEntity lecture = new LectureEntity();
+        lecture.setSubject(new SubjectEntity().setName("Mathematics"));
+        GradeCardEntity gradeCard = new GradeCardEntity();
+        gradeCard.setLecture(lecture);
+        return new GradeEntity().setGrade(value).setDate(LocalDate.now()).setGradeCard(gradeCard);
+    }
+
+    private static GradeDigestEntryEntity entry(Long id, String recipient, int grade) {
+        return new GradeDigestEntryEntity()
+                .setId(id)
+                .setRecipient(recipient)
+                .setStudentName("Peric Pera")
+                .setSubjectName("Mathematics")
+                .setGrade(grade)
+                .setGradedOn(LocalDate.now());
+    }
+}
@@ -6,21 +6,29 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeEntryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeResultDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.LectureRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.StudentRepository;
-import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.EmailService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeNotificationService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 
-import java.util.HashSet;
-import java.util.Optional;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,7 +43,11 @@ public class GradeServiceImplTest {
     @Mock
     private StudentRepository studentRepository;
     @Mock
-    private EmailService emailService;
+    private GradeNotificationService gradeNotificationService;
+    @Mock
+    private GradeAggregateService gradeAggregateService;
+    @Mock
+    private GradeStatisticsService gradeStatisticsService;
     @Mock
     private UserLoginService userLoginService;
 
@@ -57,10 +69,98 @@ public class GradeServiceImplTest {
         LectureEntity gradedLecture = gradeService.gradeStudentInLecture(studentId, lectureId, grade);
 
         verify(gradeRepository).save(any(GradeEntity.class));
-        verify(gradeCardRepository, times(2)).save(any(GradeCardEntity.class));
+        verify(gradeCardRepository, times(1)).save(any(GradeCardEntity.class));
+        verify(studentRepository, never()).save(any(StudentEntity.class));
+        verify(lectureRepository, never()).save(any(LectureEntity.class));
         assertNotNull(gradedLecture);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void gradeStudentInLecture_ExistingGradeCard_DoesNotTouchInverseCollections() {
+        Set<GradeCardEntity> studentGradeCards = mock(Set.class);
+        Set<GradeCardEntity> lectureGradeCards = mock(Set.class);
+        Set<GradeEntity> grades = mock(Set.class);
+
+        StudentEntity student = new StudentEntity();
+        student.setId(1);
+        student.setGradeCards(studentGradeCards);
+        LectureEntity lecture = new LectureEntity();
+        lecture.setId(1);
+        lecture.setGradeCards(lectureGradeCards);
+        GradeCardEntity gradeCard = new GradeCardEntity();
+        gradeCard.setGrades(grades);
+
+        when(studentRepository.findById(1)).thenReturn(Optional.of(student));
+        when(lectureRepository.findById(1)).thenReturn(Optional.of(lecture));
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.findByLectureAndStudent(lecture, student)).thenReturn(Optional.of(gradeCard));
+
+        gradeService.gradeStudentInLecture(1, 1, 3);
+
+        // one insert for the grade, nothing else written
+        verify(gradeRepository, times(1)).save(any(GradeEntity.class));
+        verify(gradeCardRepository, never()).save(any(GradeCardEntity.class));
+        verifyNoInteractions(studentGradeCards, lectureGradeCards, grades);
+    }
+
+    @Test
+    public void gradeStudentInLecture_NotifiesParents() {
+        StudentEntity student = new StudentEntity();
+        student.setId(1);
+        LectureEntity lecture = new LectureEntity();
+        lecture.setId(1);
+        lecture.setGradeCards(new HashSet<>());
+        when(studentRepository.findById(1)).thenReturn(Optional.of(student));
+        when(lectureRepository.findById(1)).thenReturn(Optional.of(lecture));
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.findByLectureAndStudent(lecture, student)).thenReturn(Optional.empty());
+
+        gradeService.gradeStudentInLecture(1, 1, 5);
+
+        verify(gradeNotificationService).notifyParents(eq(student), argThat(g -> g.getGrade() == 5));
+        verify(gradeAggregateService).recordGrades(argThat(grades -> grades.size() == 1));
+    }
+
+    @Test
+    public void gradeStudentsInLecture_ReturnsPerRowResults() {
+        LectureEntity lecture = new LectureEntity();
+        lecture.setId(1);
+        StudentEntity enrolled = new StudentEntity();
+        enrolled.setId(1);
+        GradeCardEntity existingCard = new GradeCardEntity();
+        existingCard.setStudent(enrolled);
+        StudentEntity newcomer = new StudentEntity();
+        newcomer.setId(2);
+
+        when(lectureRepository.findById(1)).thenReturn(Optional.of(lecture));
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.findAllForGrading(eq(1), anyCollection())).thenReturn(Collections.singletonList(existingCard));
+        when(studentRepository.findAllWithParents(anyCollection())).thenReturn(Collections.singletonList(newcomer));
+
+        List<GradeResultDto> results = gradeService.gradeStudentsInLecture(1, Arrays.asList(
+                new GradeEntryDto(1, 5), new GradeEntryDto(2, 4), new GradeEntryDto(3, 3), new GradeEntryDto(1, 7)));
+
+        assertEquals(4, results.size());
+        assertEquals(GradeResultDto.CREATED, results.get(0).getStatus());
+        assertEquals(GradeResultDto.CREATED, results.get(1).getStatus());
+        assertEquals(GradeResultDto.REJECTED, results.get(2).getStatus());
+        assertEquals(GradeResultDto.REJECTED, results.get(3).getStatus());
+
+        verify(userLoginService, times(1)).isAuthorizedAs(EUserRole.ADMIN);
+        verify(gradeCardRepository, times(1)).findAllForGrading(eq(1), anyCollection());
+        verify(gradeRepository, times(1)).saveAll(anyList());
+        verify(studentRepository, never()).findById(anyInt());
+        verify(gradeNotificationService, times(2)).notifyParents(any(StudentEntity.class), any(GradeEntity.class));
+        verify(gradeAggregateService, times(1)).recordGrades(argThat(grades -> grades.size() == 2));
+    }
+
+    @Test
+    public void gradeStudentsInLecture_EmptyList() {
+        assertThrows(ResponseStatusException.class, () ->
+                gradeService.gradeStudentsInLecture(1, Collections.emptyList()));
+    }
+
     @Test
     public void gradeStudentInLecture_InvalidGrade() {
         assertThrows(ResponseStatusException.class, () ->
@@ -102,7 +202,36 @@ public class GradeServiceImplTest {
         GradeEntity updatedGrade = gradeService.updateGrade(gradeId, newGradeValue);
 
         assertEquals(newGradeValue, updatedGrade.getGrade());
-        verify(gradeRepository).save(updatedGrade);
+        verify(gradeRepository, never()).save(updatedGrade);
+    }
+
+    @Test
+    void updateGrade_PassesPreviousValueToAggregates() {
+        GradeEntity existingGrade = new GradeEntity();
+        existingGrade.setId(1);
+        existingGrade.setGrade(2);
+
+        when(gradeRepository.findById(1)).thenReturn(Optional.of(existingGrade));
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+
+        gradeService.updateGrade(1, 5);
+
+        verify(gradeAggregateService).changeGrade(existingGrade, 2);
+    }
+
+    @Test
+    void deleteGrade_RemovesGradeFromAggregates() {
+        GradeEntity existingGrade = new GradeEntity();
+        existingGrade.setId(1);
+        existingGrade.setGrade(3);
+
+        when(gradeRepository.findById(1)).thenReturn(Optional.of(existingGrade));
+
+        gradeService.deleteGrade(1);
+
+        verify(gradeRepository).delete(existingGrade);
+        verify(gradeAggregateService).removeGrade(existingGrade);
+        verify(gradeStatisticsService).gradesChanged(Collections.singletonList(existingGrade));
     }
 
     @Test
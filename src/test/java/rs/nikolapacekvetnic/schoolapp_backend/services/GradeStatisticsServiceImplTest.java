@@ -0,0 +1,212 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeStatisticsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
+
+import java.util.Collections;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GradeStatisticsServiceImplTest {
+
+    @Mock
+    private GradeCardRepository gradeCardRepository;
+    @Mock
+    private UserLoginService userLoginService;
+
+    private final AtomicLong now = new AtomicLong(1000);
+    private GradeStatisticsServiceImpl gradeStatisticsService;
+
+    @BeforeEach
+    public void setup() {
+        gradeStatisticsService = new GradeStatisticsServiceImpl(gradeCardRepository, userLoginService, 100, 60000, now::get);
+    }
+
+    private static GradeStatisticsDto statistics(EStatisticsScope scope, Integer ownerId) {
+        return GradeStatisticsDto.of(scope, ownerId, new long[5], 0, 0, 0);
+    }
+
+    private static GradeEntity grade(Integer lectureId, Integer subjectId, Integer classId) {
+        SubjectEntity subject = new SubjectEntity();
+        subject.setId(subjectId);
+        LectureEntity lecture = new LectureEntity();
+        lecture.setId(lectureId);
+        lecture.setSubject(subject);
+        SchoolClassEntity schoolClass = new SchoolClassEntity();
+        schoolClass.setId(classId);
+        StudentEntity student = new StudentEntity();
+        student.setSchoolClass(schoolClass);
+        GradeCardEntity gradeCard = new GradeCardEntity();
+        gradeCard.setLecture(lecture);
+        gradeCard.setStudent(student);
+        GradeEntity grade = new GradeEntity();
+        grade.setGradeCard(gradeCard);
+        return grade;
+    }
+
+    @Test
+    public void getStatistics_SecondCallServedFromCache() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.computeStatistics(EStatisticsScope.LECTURE, 1)).thenReturn(statistics(EStatisticsScope.LECTURE, 1));
+
+        GradeStatisticsDto first = gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+        GradeStatisticsDto second = gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+
+        assertSame(first, second);
+        verify(gradeCardRepository, times(1)).computeStatistics(EStatisticsScope.LECTURE, 1);
+    }
+
+    @Test
+    public void getStatistics_RecomputedAfterTtl() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.computeStatistics(EStatisticsScope.SUBJECT, 1)).thenReturn(statistics(EStatisticsScope.SUBJECT, 1));
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.SUBJECT, 1);
+        now.addAndGet(60000);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SUBJECT, 1);
+
+        verify(gradeCardRepository, times(2)).computeStatistics(EStatisticsScope.SUBJECT, 1);
+    }
+
+    @Test
+    public void gradesChanged_InvalidatesOnlyAffectedEntries() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.computeStatistics(any(EStatisticsScope.class), anyInt()))
+                .thenAnswer(invocation -> statistics(invocation.getArgument(0), invocation.getArgument(1)));
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+        gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 2);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+
+        gradeStatisticsService.gradesChanged(Collections.singletonList(grade(1, 7, 3)));
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+        gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 2);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+
+        verify(gradeCardRepository, times(2)).computeStatistics(EStatisticsScope.LECTURE, 1);
+        verify(gradeCardRepository, times(1)).computeStatistics(EStatisticsScope.LECTURE, 2);
+        verify(gradeCardRepository, times(2)).computeStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+    }
+
+    @Test
+    public void gradesChanged_DetachedGradeCard_InvalidatesOnlyItsClass() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.computeStatistics(any(EStatisticsScope.class), anyInt()))
+                .thenAnswer(invocation -> statistics(invocation.getArgument(0), invocation.getArgument(1)));
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+
+        GradeEntity grade = grade(1, 7, 3);
+        grade.getGradeCard().setLecture(null);
+        gradeStatisticsService.gradesChanged(Collections.singletonList(grade));
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+
+        verify(gradeCardRepository, times(1)).computeStatistics(EStatisticsScope.LECTURE, 1);
+        verify(gradeCardRepository, times(2)).computeStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+    }
+
+    @Test
+    public void schoolClassesChanged_InvalidatesGivenClasses() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.computeStatistics(any(EStatisticsScope.class), anyInt()))
+                .thenAnswer(invocation -> statistics(invocation.getArgument(0), invocation.getArgument(1)));
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 2);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+
+        gradeStatisticsService.schoolClassesChanged(Collections.singletonList(2));
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 2);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+
+        verify(gradeCardRepository, times(2)).computeStatistics(EStatisticsScope.SCHOOL_CLASS, 2);
+        verify(gradeCardRepository, times(1)).computeStatistics(EStatisticsScope.SCHOOL_CLASS, 3);
+    }
+
+    @Test
+    public void invalidateAll_DropsEveryEntry() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.computeStatistics(any(EStatisticsScope.class), anyInt()))
+                .thenAnswer(invocation -> statistics(invocation.getArgument(0), invocation.getArgument(1)));
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SUBJECT, 2);
+
+        gradeStatisticsService.invalidateAll();
+
+        gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+        gradeStatisticsService.getStatistics(EStatisticsScope.SUBJECT, 2);
+
+        verify(gradeCardRepository, times(2)).computeStatistics(EStatisticsScope.LECTURE, 1);
+        verify(gradeCardRepository, times(2)).computeStatistics(EStatisticsScope.SUBJECT, 2);
+    }
+
+    @Test
+    public void getStatistics_InvalidatedDuringComputation_NotCached() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.computeStatistics(EStatisticsScope.LECTURE, 1))
+                .thenAnswer(invocation -> {
+                    gradeStatisticsService.gradesChanged(Collections.singletonList(grade(1, 7, 3)));
+                    return statistics(EStatisticsScope.LECTURE, 1);
+                })
+                .thenReturn(statistics(EStatisticsScope.LECTURE, 1));
+
+        GradeStatisticsDto stale = gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+        GradeStatisticsDto fresh = gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1);
+
+        assertNotSame(stale, fresh);
+        assertSame(fresh, gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1));
+        verify(gradeCardRepository, times(2)).computeStatistics(EStatisticsScope.LECTURE, 1);
+    }
+
+    @Test
+    public void getStatistics_ConcurrentCallersShareOneComputation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(gradeCardRepository.computeStatistics(EStatisticsScope.LECTURE, 1)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return statistics(EStatisticsScope.LECTURE, 1);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<GradeStatisticsDto> first = executor.submit(() -> gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1));
+            started.await(5, TimeUnit.SECONDS);
+            Future<GradeStatisticsDto> second = executor.submit(() -> gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1));
+
+            Thread.sleep(100);
+            release.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            verify(gradeCardRepository, times(1)).computeStatistics(EStatisticsScope.LECTURE, 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getStatistics_Unauthorized() {
+        assertThrows(ResponseStatusException.class, () -> gradeStatisticsService.getStatistics(EStatisticsScope.LECTURE, 1));
+        verifyNoInteractions(gradeCardRepository);
+    }
+}
@@ -0,0 +1,75 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.LectureRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LectureCleanupServiceImplTest {
+
+    @Mock private GradeCardRepository gradeCardRepository;
+    @Mock private GradeRepository gradeRepository;
+    @Mock private LectureRepository lectureRepository;
+    @Mock private GradeAggregateService gradeAggregateService;
+    @Mock private GradeStatisticsService gradeStatisticsService;
+
+    private LectureCleanupServiceImpl lectureCleanupService;
+
+    @BeforeEach
+    public void setup() {
+        lectureCleanupService = new LectureCleanupServiceImpl(gradeCardRepository, gradeRepository, lectureRepository,
+                gradeAggregateService, gradeStatisticsService, 100);
+    }
+
+    @Test
+    public void deleteLectures_DetachesGradeCardsWithBulkStatements() {
+        List<Integer> lectureIds = Arrays.asList(1, 2);
+
+        lectureCleanupService.deleteLectures(lectureIds);
+
+        InOrder inOrder = inOrder(gradeAggregateService, gradeCardRepository, lectureRepository);
+        inOrder.verify(gradeAggregateService).removeLectures(lectureIds);
+        inOrder.verify(gradeCardRepository).detachFromLectures(lectureIds);
+        inOrder.verify(lectureRepository).deleteAllByIds(lectureIds);
+        verify(gradeStatisticsService).invalidateAll();
+        verifyNoMoreInteractions(gradeCardRepository, lectureRepository);
+    }
+
+    @Test
+    public void deleteLectures_NothingToDelete() {
+        lectureCleanupService.deleteLectures(Collections.emptyList());
+
+        verifyNoInteractions(gradeAggregateService, gradeCardRepository, lectureRepository, gradeStatisticsService);
+    }
+
+    @Test
+    public void purgeOrphans_GradeCardsWaitForTheirGrades() {
+        when(gradeRepository.deleteOrphans(100)).thenReturn(100);
+
+        assertEquals(100, lectureCleanupService.purgeOrphans());
+        verify(gradeCardRepository, never()).deleteOrphans(anyInt());
+    }
+
+    @Test
+    public void purgeOrphans_RemainingBatchGoesToGradeCards() {
+        when(gradeRepository.deleteOrphans(100)).thenReturn(30);
+        when(gradeCardRepository.deleteOrphans(70)).thenReturn(5);
+
+        assertEquals(35, lectureCleanupService.purgeOrphans());
+    }
+}
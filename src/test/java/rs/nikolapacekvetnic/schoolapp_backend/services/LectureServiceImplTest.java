@@ -5,16 +5,25 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.EnrollmentRequestDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.EnrollmentResultDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.LectureRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureCleanupService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
 class LectureServiceImplTest {
@@ -24,6 +33,8 @@ class LectureServiceImplTest {
     @Mock private StudentRepository studentRepository;
     @Mock private SubjectRepository subjectRepository;
     @Mock private TeacherRepository teacherRepository;
+    @Mock private LectureCleanupService lectureCleanupService;
+    @Mock private GradeStatisticsService gradeStatisticsService;
     @Mock private UserLoginService userLoginService;
 
     @InjectMocks private LectureServiceImpl lectureService;
@@ -49,8 +60,8 @@ class LectureServiceImplTest {
 
         assertNotNull(createdLecture);
         verify(lectureRepository).save(any(LectureEntity.class));
-        verify(subjectRepository).save(subject);
-        verify(teacherRepository).save(teacher);
+        verify(subjectRepository, never()).save(subject);
+        verify(teacherRepository, never()).save(teacher);
     }
 
     @Test
@@ -80,8 +91,9 @@ class LectureServiceImplTest {
 
         assertNotNull(connectedLecture);
         verify(gradeCardRepository).save(any(GradeCardEntity.class));
-        verify(studentRepository).save(student);
-        verify(lectureRepository).save(lecture);
+        verify(gradeStatisticsService).gradeCardsChanged(argThat(gradeCards -> gradeCards.size() == 1));
+        verify(studentRepository, never()).save(student);
+        verify(lectureRepository, never()).save(lecture);
     }
 
     @Test
@@ -115,7 +127,7 @@ class LectureServiceImplTest {
         Integer subjectId = 1, teacherId = 1;
         SubjectEntity subject = new SubjectEntity();
         TeacherEntity teacher = new TeacherEntity();
-        LectureEntity lecture = new LectureEntity();
+        LectureEntity lecture = new LectureEntity().setId(5);
 
         when(subjectRepository.findById(subjectId)).thenReturn(Optional.of(subject));
         when(teacherRepository.findById(teacherId)).thenReturn(Optional.of(teacher));
@@ -125,9 +137,37 @@ class LectureServiceImplTest {
         LectureEntity disconnectedLecture = lectureService.disconnectSubjectWithTeacher(subjectId, teacherId);
 
         assertNotNull(disconnectedLecture);
-        verify(subjectRepository).save(subject);
-        verify(teacherRepository).save(teacher);
-        verify(lectureRepository).delete(lecture);
+        verify(subjectRepository, never()).save(subject);
+        verify(teacherRepository, never()).save(teacher);
+        verify(lectureCleanupService).deleteLectures(Collections.singletonList(5));
+        verify(lectureRepository, never()).delete(any(LectureEntity.class));
+    }
+
+    @Test
+    void disconnectSubjectWithTeacher_GradedStudents_DetachesCardsInBulk() {
+        Integer subjectId = 1, teacherId = 1;
+        SubjectEntity subject = new SubjectEntity();
+        TeacherEntity teacher = new TeacherEntity();
+        LectureEntity lecture = new LectureEntity().setId(7);
+        for (int studentId = 10; studentId < 13; studentId++) {
+            StudentEntity student = (StudentEntity) new StudentEntity().setId(studentId);
+            student.setFirstName("Student").setLastName("No" + studentId);
+
+            GradeCardEntity card = new GradeCardEntity().setId(studentId).setLecture(lecture).setStudent(student);
+            card.getGrades().add(new GradeEntity().setGrade(5).setDate(LocalDate.of(2023, 10, 2)).setGradeCard(card));
+            lecture.getGradeCards().add(card);
+        }
+
+        when(subjectRepository.findById(subjectId)).thenReturn(Optional.of(subject));
+        when(teacherRepository.findById(teacherId)).thenReturn(Optional.of(teacher));
+        when(lectureRepository.findBySubjectAndTeacher(subject, teacher)).thenReturn(Optional.of(lecture));
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+
+        lectureService.disconnectSubjectWithTeacher(subjectId, teacherId);
+
+        verify(lectureCleanupService).deleteLectures(Collections.singletonList(7));
+        verify(lectureRepository, never()).delete(any(LectureEntity.class));
+        verifyNoInteractions(gradeCardRepository);
     }
 
     @Test
@@ -156,4 +196,62 @@ class LectureServiceImplTest {
         assertThrows(ResponseStatusException.class, () ->
                 lectureService.disconnectSubjectWithTeacher(subjectId, teacherId));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enrollStudents_InsertsOnlyMissingGradeCards() {
+        Integer lectureId = 1, schoolClassId = 3;
+        LectureEntity lecture = new LectureEntity();
+        StudentEntity first = (StudentEntity) new StudentEntity().setId(10);
+        StudentEntity second = (StudentEntity) new StudentEntity().setId(11);
+        StudentEntity third = (StudentEntity) new StudentEntity().setId(12);
+
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(lectureRepository.findById(lectureId)).thenReturn(Optional.of(lecture));
+        when(studentRepository.findAllBySchoolClassId(schoolClassId)).thenReturn(Arrays.asList(first, second));
+        when(studentRepository.findAllById(Collections.singleton(12))).thenReturn(Collections.singletonList(third));
+        when(gradeCardRepository.findEnrolledStudentIds(eq(lectureId), anyCollection())).thenReturn(Collections.singletonList(11));
+
+        EnrollmentRequestDto enrollment = new EnrollmentRequestDto()
+                .setSchoolClassId(schoolClassId)
+                .setStudentIds(Arrays.asList(10, 12, 99));
+
+        EnrollmentResultDto result = lectureService.enrollStudents(lectureId, enrollment);
+
+        assertEquals(2, result.getEnrolled());
+        assertEquals(1, result.getAlreadyEnrolled());
+        assertEquals(Collections.singletonList(99), result.getNotFound());
+
+        ArgumentCaptor<Iterable<GradeCardEntity>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(gradeCardRepository).saveAll(captor.capture());
+        List<GradeCardEntity> saved = (List<GradeCardEntity>) captor.getValue();
+        assertEquals(2, saved.size());
+        assertSame(first, saved.get(0).getStudent());
+        assertSame(third, saved.get(1).getStudent());
+        assertEquals(0, saved.get(0).getPresent());
+        verify(gradeStatisticsService).gradeCardsChanged(saved);
+        verify(gradeCardRepository, never()).findByLectureAndStudent(any(), any());
+        verify(studentRepository, never()).save(any(StudentEntity.class));
+        verify(lectureRepository, never()).save(any(LectureEntity.class));
+    }
+
+    @Test
+    void enrollStudents_LectureNotFound() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(lectureRepository.findById(99)).thenReturn(Optional.empty());
+
+        EnrollmentRequestDto enrollment = new EnrollmentRequestDto().setSchoolClassId(1);
+
+        assertThrows(ResponseStatusException.class, () -> lectureService.enrollStudents(99, enrollment));
+        verify(gradeCardRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void enrollStudents_EmptyRequest() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+
+        assertThrows(ResponseStatusException.class, () ->
+                lectureService.enrollStudents(1, new EnrollmentRequestDto()));
+        verifyNoInteractions(lectureRepository, gradeCardRepository);
+    }
 }
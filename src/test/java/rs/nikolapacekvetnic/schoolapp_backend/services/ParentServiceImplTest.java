@@ -5,15 +5,33 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.ChildGradeSummaryDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.LatestGradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SubjectAverageRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
-import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.StudentRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
 
-import java.util.HashSet;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -21,7 +39,16 @@ import static org.mockito.Mockito.when;
 public class ParentServiceImplTest {
 
     @Mock
-    private UserRepository userRepository;
+    private CurrentUserHolder currentUserHolder;
+
+    @Mock
+    private GradeCardRepository gradeCardRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private TokenEpochService tokenEpochService;
 
     @InjectMocks
     private ParentServiceImpl parentService;
@@ -32,58 +59,101 @@ public class ParentServiceImplTest {
         expectedParent.setUsername("parentUsername");
         expectedParent.setRole(EUserRole.PARENT);
 
-        when(userRepository.findByUsername(expectedParent.getUsername())).thenReturn(Optional.of(expectedParent));
+        when(currentUserHolder.findByUsername(expectedParent.getUsername())).thenReturn(Optional.of(expectedParent));
 
         ParentEntity actualParent = parentService.getParent(expectedParent.getUsername());
 
         assertEquals(expectedParent, actualParent);
-        verify(userRepository).findByUsername(expectedParent.getUsername());
+        verify(currentUserHolder).findByUsername(expectedParent.getUsername());
     }
 
     @Test
-    public void whenGetGradeCards_thenReturnGradeCardList() {
-        ParentEntity parent = new ParentEntity();
-        parent.setUsername("parentUsername");
-        parent.setRole(EUserRole.PARENT);
+    public void whenGetGradeCards_thenReturnGradeCardViewsOfAllChildren() {
+        String username = "parentUsername";
 
-        Set<GradeCardEntity> gradeCards = new HashSet<>();
+        when(currentUserHolder.findCredentials(username)).thenReturn(Optional.of(parentCredentials(username)));
+        when(studentRepository.findIdsByParentId(5)).thenReturn(Collections.singletonList(1));
+        when(gradeCardRepository.findGradeRows(eq(Collections.singletonList(1)), isNull()))
+                .thenReturn(Collections.singletonList(gradeRow(1, 10, "Math", 100, 5, LocalDate.of(2021, 10, 1))));
 
-        Set<StudentEntity> students = new HashSet<>();
-        students.add(new StudentEntity().setGradeCards(gradeCards));
-        parent.setStudents(students);
+        List<GradeCardViewDto> actualGradeCards = parentService.getGradeCards(username, null);
 
-        when(userRepository.findByUsername(parent.getUsername())).thenReturn(Optional.of(parent));
+        assertEquals(1, actualGradeCards.size());
+        assertEquals(1, actualGradeCards.get(0).getGrades().size());
+        verify(currentUserHolder, never()).findByUsername(anyString());
+    }
+
+    @Test
+    public void whenGetGradeCards_NotAParent_thenThrowException() {
+        String username = "studentUsername";
 
-        List<Set<GradeCardEntity>> actualGradeCards = parentService.getGradeCards(parent.getUsername());
+        when(currentUserHolder.findCredentials(username))
+                .thenReturn(Optional.of(new UserCredentialsDto(7, username, "hash", EUserRole.STUDENT, 0)));
 
-        assertNotNull(actualGradeCards);
-        assertTrue(actualGradeCards.contains(gradeCards));
-        verify(userRepository).findByUsername(parent.getUsername());
+        assertThrows(ResponseStatusException.class, () -> parentService.getGradeCards(username, null));
     }
 
     @Test
-    public void whenGetGradeCardsForSubject_thenReturnFilteredGradeCardList() {
+    public void whenGetGradeCardsForSubject_thenFilterIsPassedToQuery() {
         String username = "parentUsername";
         Integer subjectId = 1;
-        ParentEntity parent = new ParentEntity();
-        parent.setUsername(username);
-        parent.setRole(EUserRole.PARENT);
-        GradeCardEntity gradeCard = new GradeCardEntity();
-        gradeCard.setLecture(new LectureEntity().setSubject(new SubjectEntity().setId(subjectId)));
 
-        Set<GradeCardEntity> gradeCards = new HashSet<>();
-        gradeCards.add(gradeCard);
-        Set<StudentEntity> students = new HashSet<>();
-        students.add(new StudentEntity().setGradeCards(gradeCards));
-        parent.setStudents(students);
+        when(currentUserHolder.findCredentials(username)).thenReturn(Optional.of(parentCredentials(username)));
+        when(studentRepository.findIdsByParentId(5)).thenReturn(Collections.singletonList(1));
+        when(gradeCardRepository.findGradeRows(anyCollection(), argThat(filter -> subjectId.equals(filter.getSubjectId())
+                && Integer.valueOf(2021).equals(filter.getYear()))))
+                .thenReturn(Collections.singletonList(gradeRow(1, subjectId, "Math", 100, 5, LocalDate.of(2021, 10, 1))));
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(parent));
+        List<GradeCardViewDto> actualGradeCards = parentService.getGradeCardsForSubject(username, subjectId,
+                new GradeFilterDto().setYear(2021));
 
-        List<GradeCardEntity> actualGradeCards = parentService.getGradeCardsForSubject(username, subjectId);
+        assertEquals(1, actualGradeCards.size());
+        assertEquals(subjectId, actualGradeCards.get(0).getSubjectId());
+    }
 
-        assertNotNull(actualGradeCards);
-        assertTrue(actualGradeCards.contains(gradeCard));
-        verify(userRepository).findByUsername(username);
+    @Test
+    public void whenGetDashboard_thenReturnSummaryPerChildFromAggregatedQueries() {
+        String username = "parentUsername";
+
+        StudentEntity ana = new StudentEntity().setFirstName("Ana").setLastName("Jovic");
+        ana.setId(1);
+        StudentEntity marko = new StudentEntity().setFirstName("Marko").setLastName("Jovic");
+        marko.setId(2);
+
+        List<LatestGradeRowDto> latestRows = Arrays.asList(
+                new LatestGradeRowDto(1, 10, "Math", 4, LocalDate.of(2021, 10, 5)),
+                new LatestGradeRowDto(1, 20, "Physics", 3, LocalDate.of(2021, 10, 3)),
+                new LatestGradeRowDto(1, 10, "Math", 5, LocalDate.of(2021, 10, 1)));
+        List<SubjectAverageRowDto> averageRows = Arrays.asList(
+                new SubjectAverageRowDto(1, 10, "Math", 2L, 4.5),
+                new SubjectAverageRowDto(1, 20, "Physics", 1L, 10.0 / 3));
+
+        when(currentUserHolder.findCredentials(username)).thenReturn(Optional.of(parentCredentials(username)));
+        when(studentRepository.findAllByParentId(5)).thenReturn(Arrays.asList(marko, ana));
+        when(gradeCardRepository.findLatestGrades(anyCollection(), isNull(), eq(5))).thenReturn(latestRows);
+        when(gradeCardRepository.findSubjectAverages(anyCollection(), isNull())).thenReturn(averageRows);
+
+        List<ChildGradeSummaryDto> dashboard = parentService.getDashboard(username, null);
+
+        assertEquals(2, dashboard.size());
+        ChildGradeSummaryDto first = dashboard.get(0);
+        assertEquals("Ana", first.getFirstName());
+        assertEquals(LocalDate.of(2021, 10, 5), first.getLatestGrades().get(0).getDate());
+        assertEquals(3, first.getLatestGrades().size());
+        assertEquals(2, first.getSubjectAverages().size());
+        assertEquals(Double.valueOf(4.5), first.getSubjectAverages().get(0).getAverage());
+        assertEquals(Double.valueOf(3.33), first.getSubjectAverages().get(1).getAverage());
+        assertTrue(dashboard.get(1).getLatestGrades().isEmpty());
+        assertTrue(dashboard.get(1).getSubjectAverages().isEmpty());
+        verify(gradeCardRepository, never()).findGradeRows(anyCollection(), any());
     }
-}
 
+    private static UserCredentialsDto parentCredentials(String username) {
+        return new UserCredentialsDto(5, username, "hash", EUserRole.PARENT, 0);
+    }
+
+    private GradeRowDto gradeRow(Integer studentId, Integer subjectId, String subjectName, Integer gradeId, Integer grade, LocalDate date) {
+        return new GradeRowDto(studentId * 100 + subjectId, studentId, subjectId, 1, ESemester.WINTER, subjectId,
+                subjectName, "Ana", "Petrovic", 0, 0, gradeId, grade, date);
+    }
+}
@@ -0,0 +1,99 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.HashingCapacityExceededException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceImplTest {
+
+    @Test
+    public void whenEncodeAndMatch_thenRoundTrips() {
+        PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(
+                new BCryptPasswordEncoder(4), 2, 4, 5000, 1, new SimpleMeterRegistry());
+
+        String hash = service.encode("password");
+
+        assertNotEquals("password", hash);
+        assertTrue(service.matches("password", hash));
+        assertFalse(service.matches("wrong-password", hash));
+    }
+
+    @Test
+    public void whenQueueIsFull_thenRejectsWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(blockingEncoder, 1, 1, 5000, 3, registry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        try {
+            // first call occupies the only worker, second one takes the only queue slot
+            callers.submit(() -> service.encode("first"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> service.encode("second"));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (registry.get("password.hashing.queue.depth").gauge().value() < 1 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            HashingCapacityExceededException e = assertThrows(HashingCapacityExceededException.class,
+                    () -> service.encode("third"));
+
+            assertEquals(3, e.getRetryAfterSeconds());
+            assertEquals(1.0, registry.get("password.hashing.rejected").counter().count());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void whenEncodeAllExceedsQueueCapacity_thenHashesEveryPasswordInOrder() {
+        PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(
+                new BCryptPasswordEncoder(4), 2, 1, 5000, 1, new SimpleMeterRegistry());
+
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            passwords.add("password" + i);
+
+        try {
+            List<String> hashes = service.encodeAll(passwords);
+
+            assertEquals(passwords.size(), hashes.size());
+            for (int i = 0; i < passwords.size(); i++)
+                assertTrue(service.matches(passwords.get(i), hashes.get(i)));
+        } finally {
+            service.shutdown();
+        }
+    }
+}
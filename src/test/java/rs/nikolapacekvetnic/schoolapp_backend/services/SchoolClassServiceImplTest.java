@@ -14,14 +14,18 @@ import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SchoolClassRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.SchoolClassRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.StudentRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.SchoolClassCustomValidator;
 
 import javax.validation.ValidationException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -32,6 +36,7 @@ public class SchoolClassServiceImplTest {
     @Mock private SchoolClassCustomValidator schoolClassValidator;
     @Mock private StudentRepository studentRepository;
     @Mock private UserLoginService userLoginService;
+    @Mock private GradeStatisticsService gradeStatisticsService;
     @InjectMocks private SchoolClassServiceImpl schoolClassService;
 
     @BeforeEach
@@ -110,8 +115,33 @@ public class SchoolClassServiceImplTest {
         // then
         assertNotNull(connectedStudent);
         assertEquals(schoolClass, connectedStudent.getSchoolClass());
-        verify(studentRepository).save(connectedStudent);
-        verify(schoolClassRepository).save(schoolClass);
+        verify(studentRepository, never()).save(connectedStudent);
+        verify(schoolClassRepository, never()).save(schoolClass);
+        verify(gradeStatisticsService).schoolClassesChanged(Collections.singletonList(schoolClassId));
+    }
+
+    @Test
+    void whenConnectStudentWithClass_MovedFromOtherClass_thenBothClassesInvalidated() {
+        // given
+        Integer studentId = 1, previousClassId = 2, schoolClassId = 3;
+        SchoolClassEntity previousClass = new SchoolClassEntity();
+        previousClass.setId(previousClassId);
+        StudentEntity student = new StudentEntity();
+        student.setId(studentId);
+        student.setSchoolClass(previousClass);
+
+        SchoolClassEntity schoolClass = new SchoolClassEntity();
+        schoolClass.setId(schoolClassId);
+
+        when(studentRepository.findById(studentId)).thenReturn(Optional.of(student));
+        when(schoolClassRepository.findById(schoolClassId)).thenReturn(Optional.of(schoolClass));
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+
+        // when
+        schoolClassService.connectStudentWithClass(studentId, schoolClassId);
+
+        // then
+        verify(gradeStatisticsService).schoolClassesChanged(Arrays.asList(previousClassId, schoolClassId));
     }
 
     @Test
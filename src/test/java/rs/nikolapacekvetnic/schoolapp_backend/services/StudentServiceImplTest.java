@@ -2,6 +2,7 @@ package rs.nikolapacekvetnic.schoolapp_backend.services;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -9,12 +10,20 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.server.ResponseStatusException;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.*;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.exceptions.UnauthorizedException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeCardViewDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeRowDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.StudentRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.*;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeAggregateService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.GradeStatisticsService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
 import javax.validation.ValidationException;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,12 +35,14 @@ class StudentServiceImplTest {
     @Mock private BindingResult bindingResult;
     @Mock private GradeCardRepository gradeCardRepository;
     @Mock private GradeRepository gradeRepository;
-    @Mock private LectureRepository lectureRepository;
-    @Mock private ParentRepository parentRepository;
     @Mock private StudentRepository studentRepository;
     @Mock private UserRepository userRepository;
+    @Mock private CurrentUserHolder currentUserHolder;
     @Mock private UserLoginService userLoginService;
     @Mock private UserCustomValidator userValidator;
+    @Mock private GradeAggregateService gradeAggregateService;
+    @Mock private GradeStatisticsService gradeStatisticsService;
+    @Mock private TokenEpochService tokenEpochService;
     @InjectMocks private StudentServiceImpl studentService;
 
     @Test
@@ -41,66 +52,84 @@ class StudentServiceImplTest {
         expectedStudent.setUsername(username);
         expectedStudent.setRole(EUserRole.STUDENT);
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(expectedStudent));
+        when(currentUserHolder.findByUsername(username)).thenReturn(Optional.of(expectedStudent));
         when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
 
         StudentEntity actualStudent = studentService.getStudent(username);
 
         assertEquals(expectedStudent, actualStudent);
-        verify(userRepository).findByUsername(username);
+        verify(currentUserHolder).findByUsername(username);
     }
 
     @Test
-    void whenGetGradeCards_thenReturnGradeCards() {
+    void whenGetGradeCards_thenReturnGradeCardViews() {
         String username = "studentUsername";
-        StudentEntity student = new StudentEntity();
-        student.setUsername(username);
-        student.setRole(EUserRole.STUDENT);
-        Set<GradeCardEntity> expectedGradeCards = new HashSet<>();
-        expectedGradeCards.add(new GradeCardEntity()); // Add some mock grade cards
+        UserCredentialsDto student = new UserCredentialsDto(7, username, "hash", EUserRole.STUDENT, 0);
+        List<GradeRowDto> rows = Arrays.asList(
+                gradeRow(1, 10, "Math", 100, 5),
+                gradeRow(1, 10, "Math", 101, 4),
+                gradeRow(2, 20, "Physics", null, null));
 
-        student.setGradeCards(expectedGradeCards);
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(student));
+        when(currentUserHolder.findCredentials(username)).thenReturn(Optional.of(student));
         when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
+        when(gradeCardRepository.findGradeRows(7, null)).thenReturn(rows);
 
-        Set<GradeCardEntity> actualGradeCards = studentService.getGradeCards(username);
+        List<GradeCardViewDto> actualGradeCards = studentService.getGradeCards(username, null);
 
-        assertEquals(expectedGradeCards, actualGradeCards);
-        verify(userRepository).findByUsername(username);
+        assertEquals(2, actualGradeCards.size());
+        assertEquals("Math", actualGradeCards.get(0).getSubjectName());
+        assertEquals("Ana Petrovic", actualGradeCards.get(0).getTeacherName());
+        assertEquals(2, actualGradeCards.get(0).getGrades().size());
+        assertTrue(actualGradeCards.get(1).getGrades().isEmpty());
+        verify(currentUserHolder).findCredentials(username);
     }
 
     @Test
-    void whenGetGradeCardsForSubject_thenReturnFilteredGradeCards() {
+    void whenGetGradeCardsForSubject_thenQueryIsFilteredBySubject() {
         String username = "studentUsername";
-        Integer subjectId = 1;
-        StudentEntity student = new StudentEntity();
-        student.setUsername(username);
-        student.setRole(EUserRole.STUDENT);
-
-        GradeCardEntity gradeCard1 = new GradeCardEntity(); // Create grade card for subjectId
-        LectureEntity lecture1 = new LectureEntity();
-        SubjectEntity subject1 = new SubjectEntity();
-        subject1.setId(subjectId);
-        lecture1.setSubject(subject1);
-        gradeCard1.setLecture(lecture1);
-
-        GradeCardEntity gradeCard2 = new GradeCardEntity(); // Create grade card for another subject
-        LectureEntity lecture2 = new LectureEntity();
-        SubjectEntity subject2 = new SubjectEntity();
-        subject2.setId(subjectId + 1);
-        lecture2.setSubject(subject2);
-        gradeCard2.setLecture(lecture2);
-
-        Set<GradeCardEntity> gradeCards = new HashSet<>(Arrays.asList(gradeCard1, gradeCard2));
-        student.setGradeCards(gradeCards);
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(student));
+        Integer subjectId = 10;
+        UserCredentialsDto student = new UserCredentialsDto(7, username, "hash", EUserRole.STUDENT, 0);
+
+        when(currentUserHolder.findCredentials(username)).thenReturn(Optional.of(student));
+        when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
+        when(gradeCardRepository.findGradeRows(eq(7), argThat(filter -> subjectId.equals(filter.getSubjectId())
+                && filter.getSemester() == ESemester.WINTER)))
+                .thenReturn(Collections.singletonList(gradeRow(1, subjectId, "Math", 100, 5)));
+
+        List<GradeCardViewDto> actualGradeCards = studentService.getGradeCardsForSubject(username, subjectId,
+                new GradeFilterDto().setSemester(ESemester.WINTER));
+
+        assertEquals(1, actualGradeCards.size());
+        assertEquals(subjectId, actualGradeCards.get(0).getSubjectId());
+        verify(currentUserHolder).findCredentials(username);
+    }
+
+    @Test
+    void whenGetGradeCardsForManySubjects_thenGradesAreReadInOneQuery() {
+        String username = "studentUsername";
+        UserCredentialsDto student = new UserCredentialsDto(7, username, "hash", EUserRole.STUDENT, 0);
+        List<GradeRowDto> rows = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            rows.add(gradeRow(i, i, "Subject " + i, i * 10, 5));
+            rows.add(gradeRow(i, i, "Subject " + i, i * 10 + 1, 3));
+        }
+
+        when(currentUserHolder.findCredentials(username)).thenReturn(Optional.of(student));
         when(userLoginService.getLoggedInUsername()).thenReturn(Optional.of(username));
+        when(gradeCardRepository.findGradeRows(7, null)).thenReturn(rows);
+
+        List<GradeCardViewDto> actualGradeCards = studentService.getGradeCards(username, null);
 
-        List<GradeCardEntity> actualGradeCards = studentService.getGradeCardsForSubject(username, subjectId);
+        assertEquals(30, actualGradeCards.size());
+        verify(gradeCardRepository, times(1)).findGradeRows(7, null);
+        verifyNoMoreInteractions(gradeCardRepository);
+        verifyNoInteractions(gradeRepository, studentRepository);
+        verify(currentUserHolder, never()).findByUsername(anyString());
+    }
 
-        assertTrue(actualGradeCards.contains(gradeCard1));
-        assertFalse(actualGradeCards.contains(gradeCard2));
-        verify(userRepository).findByUsername(username);
+    private GradeRowDto gradeRow(Integer gradeCardId, Integer subjectId, String subjectName, Integer gradeId, Integer grade) {
+        return new GradeRowDto(gradeCardId, 7, gradeCardId, 1, ESemester.WINTER, subjectId, subjectName,
+                "Ana", "Petrovic", 0, 0, gradeId, grade, gradeId == null ? null : LocalDate.of(2021, 9, gradeId % 28 + 1));
     }
 
     @Test
@@ -130,7 +159,8 @@ class StudentServiceImplTest {
         assertEquals(studentDto.getFirstName(), updatedStudent.getFirstName());
         assertEquals(studentDto.getLastName(), updatedStudent.getLastName());
         assertEquals(studentDto.getUsername(), updatedStudent.getUsername());
-        verify(studentRepository).save(updatedStudent);
+        verify(tokenEpochService).revokeTokens(existingStudent, "jane.doe");
+        verify(studentRepository, never()).save(updatedStudent);
     }
 
     @Test
@@ -165,12 +195,47 @@ class StudentServiceImplTest {
 
         studentService.deleteStudent(student.getId());
 
-        for (ParentEntity parent : student.getParents())
-            verify(parentRepository).save(parent);
+        List<Integer> ids = Collections.singletonList(student.getId());
+        InOrder inOrder = inOrder(gradeAggregateService, gradeRepository, gradeCardRepository, studentRepository, userRepository);
+        inOrder.verify(gradeAggregateService).removeStudents(ids);
+        inOrder.verify(gradeRepository).deleteAllByStudentIds(ids);
+        inOrder.verify(gradeCardRepository).deleteAllByStudentIds(ids);
+        inOrder.verify(studentRepository).deleteParentLinks(ids);
+        inOrder.verify(studentRepository).deleteStudentRows(ids);
+        inOrder.verify(userRepository).deleteAllByIds(ids);
+        verify(gradeStatisticsService).invalidateAll();
+
+        // nothing is loaded or saved per grade card, grade or parent
+        verify(gradeRepository, never()).deleteAll(any());
+        verify(gradeCardRepository, never()).delete(any());
+        verify(studentRepository, never()).delete(any());
+    }
+
+    @Test
+    void whenDeleteGeneration_thenStudentsAreDeletedInChunks() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++)
+            ids.add(i);
+
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(studentRepository.findIdsByGeneration(2010)).thenReturn(ids);
+
+        int deleted = studentService.deleteGeneration(2010);
+
+        assertEquals(2500, deleted);
+        verify(gradeRepository).deleteAllByStudentIds(ids.subList(0, 1000));
+        verify(gradeRepository).deleteAllByStudentIds(ids.subList(1000, 2000));
+        verify(gradeRepository).deleteAllByStudentIds(ids.subList(2000, 2500));
+        verify(userRepository, times(3)).deleteAllByIds(anyCollection());
+        verify(gradeAggregateService, times(3)).removeStudents(anyCollection());
+    }
+
+    @Test
+    void whenDeleteGeneration_UnauthorizedUser_thenThrowUnauthorizedException() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(false);
 
-        verify(gradeCardRepository, times(2)).delete(any());
-        verify(gradeRepository, times(2)).deleteAll(any());
-        verify(studentRepository, times(1)).delete(student);
+        assertThrows(UnauthorizedException.class, () -> studentService.deleteGeneration(2010));
+        verifyNoInteractions(studentRepository, userRepository);
     }
 
     private StudentEntity createStudent() {
@@ -9,14 +9,19 @@ import org.springframework.validation.BindingResult;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.SubjectEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.SubjectRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.LectureRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.SubjectRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureCleanupService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.SubjectCustomValidator;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,6 +32,8 @@ public class SubjectServiceImplTest {
     @Mock private SubjectCustomValidator subjectValidator;
     @Mock private UserLoginServiceImpl userLoginService;
     @Mock private BindingResult bindingResult;
+    @Mock private LectureRepository lectureRepository;
+    @Mock private LectureCleanupService lectureCleanupService;
     @InjectMocks private SubjectServiceImpl subjectService;
 
 
@@ -59,7 +66,7 @@ public class SubjectServiceImplTest {
 
         assertNotNull(updatedSubject);
         assertEquals(subjectDTO.getName(), updatedSubject.getName());
-        verify(subjectRepository).save(updatedSubject);
+        verify(subjectRepository, never()).save(updatedSubject);
     }
 
     @Test
@@ -74,4 +81,21 @@ public class SubjectServiceImplTest {
 
         verify(subjectRepository).delete(subject);
     }
+
+    @Test
+    public void whenDeleteSubject_thenLecturesAreDeletedInBulk() {
+        Integer id = 1;
+        SubjectEntity subject = new SubjectEntity();
+        List<Integer> lectureIds = Arrays.asList(3, 4, 5);
+
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(subjectRepository.findById(id)).thenReturn(Optional.of(subject));
+        when(lectureRepository.findIdsBySubjectId(id)).thenReturn(lectureIds);
+
+        subjectService.deleteSubject(id);
+
+        verify(lectureCleanupService).deleteLectures(lectureIds);
+        verify(subjectRepository).delete(subject);
+        verify(lectureRepository, never()).delete(any());
+    }
 }
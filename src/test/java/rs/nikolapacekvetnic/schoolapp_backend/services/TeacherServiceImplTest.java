@@ -1,35 +1,53 @@
 package rs.nikolapacekvetnic.schoolapp_backend.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.server.ResponseStatusException;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.ESemester;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.GradeCardEntity;
-import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.LectureEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradeRowDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookFilterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.GradebookPageDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.GradeCardRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.LectureRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.TeacherRepository;
-import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.LectureCleanupService;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.TokenEpochService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class TeacherServiceImplTest {
 
+    @Mock private GradeCardRepository gradeCardRepository;
     @Mock private TeacherRepository teacherRepository;
-    @Mock private UserRepository userRepository;
+    @Mock private LectureRepository lectureRepository;
+    @Mock private LectureCleanupService lectureCleanupService;
+    @Mock private CurrentUserHolder currentUserHolder;
     @Mock private UserLoginServiceImpl userLoginService;
     @Mock private BindingResult bindingResult;
     @Mock private UserCustomValidator userValidator;
+    @Mock private TokenEpochService tokenEpochService;
+
+    @Spy private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
     @InjectMocks private TeacherServiceImpl teacherService;
 
@@ -38,7 +56,7 @@ public class TeacherServiceImplTest {
         String username = "teacherUsername";
         TeacherEntity expectedTeacher = new TeacherEntity();
         expectedTeacher.setRole(EUserRole.TEACHER);
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(expectedTeacher));
+        when(currentUserHolder.findByUsername(username)).thenReturn(Optional.of(expectedTeacher));
 
         TeacherEntity actualTeacher = teacherService.getTeacher(username);
 
@@ -48,32 +66,90 @@ public class TeacherServiceImplTest {
     @Test
     public void whenGetTeacher_UserNotFound_thenThrowException() {
         String username = "invalidUsername";
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(currentUserHolder.findByUsername(username)).thenReturn(Optional.empty());
 
         assertThrows(ResponseStatusException.class, () -> teacherService.getTeacher(username));
     }
 
     @Test
-    public void whenGetTeacherGradeCards_thenReturnGradeCardsList() {
-        TeacherEntity teacher = mock(TeacherEntity.class);
-        List<LectureEntity> lectureList = new ArrayList<>();
+    public void whenGetTeacherId_thenResolvedFromCredentialsOnly() {
+        String username = "teacherUsername";
+        when(currentUserHolder.findCredentials(username))
+                .thenReturn(Optional.of(new UserCredentialsDto(3, username, "hash", EUserRole.TEACHER, 0)));
+
+        assertEquals(Integer.valueOf(3), teacherService.getTeacherId(username));
+        verify(currentUserHolder, never()).findByUsername(anyString());
+    }
+
+    @Test
+    public void whenGetTeacherId_NotATeacher_thenThrowException() {
+        String username = "studentUsername";
+        when(currentUserHolder.findCredentials(username))
+                .thenReturn(Optional.of(new UserCredentialsDto(4, username, "hash", EUserRole.STUDENT, 0)));
 
-        LectureEntity lecture = mock(LectureEntity.class);
-        GradeCardEntity gradeCard = mock(GradeCardEntity.class);
-        lectureList.add(lecture);
+        assertThrows(ResponseStatusException.class, () -> teacherService.getTeacherId(username));
+    }
 
-        Set<GradeCardEntity> gradeCardList = new HashSet<>();
-        gradeCardList.add(gradeCard);
-        when(lecture.getGradeCards()).thenReturn(gradeCardList);
+    @Test
+    public void whenGetGradebookPage_thenReturnPageWithNextCursor() {
+        GradebookFilterDto filter = new GradebookFilterDto().setSize(2);
 
-        when(teacher.getLectures()).thenReturn(lectureList);
+        when(gradeCardRepository.findTeacherGradeCardIds(3, filter, 3)).thenReturn(Arrays.asList(10, 11, 12));
+        when(gradeCardRepository.findGradeRowsByGradeCardIds(Arrays.asList(10, 11)))
+                .thenReturn(Arrays.asList(gradeRow(10, 100), gradeRow(10, 101), gradeRow(11, null)));
 
-        List<GradeCardEntity> expectedGradeCards = new ArrayList<>(gradeCardList);
-        List<GradeCardEntity> actualGradeCards = teacherService.getTeacherGradeCards(teacher);
+        GradebookPageDto page = teacherService.getGradebookPage(3, filter);
 
-        assertEquals(expectedGradeCards, actualGradeCards);
+        assertEquals(2, page.getGradeCards().size());
+        assertEquals(2, page.getGradeCards().get(0).getGrades().size());
+        assertEquals(Integer.valueOf(11), page.getNext());
     }
 
+    @Test
+    public void whenGetGradebookPage_LastPage_thenNextCursorIsNull() {
+        GradebookFilterDto filter = new GradebookFilterDto().setAfter(11).setSize(1000);
+
+        when(gradeCardRepository.findTeacherGradeCardIds(3, filter, 201)).thenReturn(Collections.singletonList(12));
+        when(gradeCardRepository.findGradeRowsByGradeCardIds(Collections.singletonList(12)))
+                .thenReturn(Collections.singletonList(gradeRow(12, 102)));
+
+        GradebookPageDto page = teacherService.getGradebookPage(3, filter);
+
+        assertEquals(1, page.getGradeCards().size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    public void whenStreamGradebook_thenWriteOneLinePerGradeCardAcrossPages() throws Exception {
+        GradebookFilterDto filter = new GradebookFilterDto();
+        List<Integer> firstPage = new ArrayList<>();
+        for (int id = 1; id <= 201; id++)
+            firstPage.add(id);
+
+        when(gradeCardRepository.findTeacherGradeCardIds(eq(3), same(filter), eq(201)))
+                .thenReturn(firstPage)
+                .thenReturn(Collections.singletonList(202));
+        when(gradeCardRepository.findGradeRowsByGradeCardIds(anyList()))
+                .thenAnswer(invocation -> {
+                    List<GradeRowDto> rows = new ArrayList<>();
+                    for (Object id : (List<?>) invocation.getArgument(0))
+                        rows.add(gradeRow((Integer) id, null));
+                    return rows;
+                });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        teacherService.streamGradebook(3, filter, out);
+
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertEquals(201, lines.length);
+        assertTrue(lines[200].contains("\"id\":202"));
+        verify(gradeCardRepository, times(2)).findTeacherGradeCardIds(eq(3), same(filter), eq(201));
+    }
+
+    private GradeRowDto gradeRow(Integer gradeCardId, Integer gradeId) {
+        return new GradeRowDto(gradeCardId, 1, 5, 2021, ESemester.WINTER, 7, "Math", "Ana", "Petrovic", 0, 0,
+                gradeId, gradeId == null ? null : 5, gradeId == null ? null : LocalDate.of(2021, 10, 1));
+    }
 
     @Test
     public void whenUpdateTeacher_ValidData_thenUpdateTeacher() {
@@ -96,7 +172,8 @@ public class TeacherServiceImplTest {
 
         TeacherEntity updatedTeacher = teacherService.updateTeacher(existingTeacher.getId(), teacherDto, bindingResult);
 
-        verify(teacherRepository, times(1)).save(any(TeacherEntity.class));
+        verify(teacherRepository, never()).save(any(TeacherEntity.class));
+        verify(tokenEpochService).revokeTokens(existingTeacher, null);
         assertEquals("Mike", updatedTeacher.getFirstName());
         assertEquals("Newton", updatedTeacher.getLastName());
     }
@@ -124,9 +201,13 @@ public class TeacherServiceImplTest {
         // mock userLoginService to authorize as ADMIN
         when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
 
+        when(lectureRepository.findIdsByTeacherId(id)).thenReturn(Arrays.asList(3, 4));
+
         teacherService.deleteTeacher(id);
 
+        verify(lectureCleanupService).deleteLectures(Arrays.asList(3, 4));
         verify(teacherRepository).delete(teacher);
+        verifyNoInteractions(gradeCardRepository);
     }
 
     @Test
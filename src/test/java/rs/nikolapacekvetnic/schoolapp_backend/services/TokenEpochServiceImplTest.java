@@ -0,0 +1,94 @@
+package rs.nikolapacekvetnic.schoolapp_backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenEpochServiceImplTest {
+
+    @Mock private UserRepository userRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private TokenEpochServiceImpl tokenEpochService;
+
+    @BeforeEach
+    public void setUp() {
+        tokenEpochService = new TokenEpochServiceImpl(userRepository, 100, 30_000L, now::get);
+    }
+
+    @Test
+    public void whenEpochMatches_thenCurrentAndLookedUpOnce() {
+        when(userRepository.findTokenEpochByUsername("username")).thenReturn(Optional.of(2));
+
+        assertTrue(tokenEpochService.isCurrent("username", 2));
+        assertTrue(tokenEpochService.isCurrent("username", 2));
+
+        verify(userRepository, times(1)).findTokenEpochByUsername("username");
+    }
+
+    @Test
+    public void whenEpochBumped_thenOldTokenRejectedAfterTtl() {
+        when(userRepository.findTokenEpochByUsername("username")).thenReturn(Optional.of(0), Optional.of(1));
+
+        assertTrue(tokenEpochService.isCurrent("username", 0));
+
+        now.addAndGet(30_000L);
+
+        assertFalse(tokenEpochService.isCurrent("username", 0));
+        assertTrue(tokenEpochService.isCurrent("username", 1));
+    }
+
+    @Test
+    public void whenTokenHasNoEpoch_thenTreatedAsZero() {
+        when(userRepository.findTokenEpochByUsername("username")).thenReturn(Optional.of(0));
+
+        assertTrue(tokenEpochService.isCurrent("username", null));
+    }
+
+    @Test
+    public void whenUserDeleted_thenRejected() {
+        when(userRepository.findTokenEpochByUsername("nobody")).thenReturn(Optional.empty());
+
+        assertFalse(tokenEpochService.isCurrent("nobody", 0));
+        assertFalse(tokenEpochService.isCurrent("nobody", 0));
+
+        verify(userRepository, times(1)).findTokenEpochByUsername("nobody");
+    }
+
+    @Test
+    public void whenTokensRevoked_thenOldTokenRejectedImmediately() {
+        when(userRepository.findTokenEpochByUsername("username")).thenReturn(Optional.of(0), Optional.of(1));
+
+        assertTrue(tokenEpochService.isCurrent("username", 0));
+
+        UserEntity user = new StudentEntity().setUsername("username");
+        tokenEpochService.revokeTokens(user, "username");
+
+        assertEquals(1, user.getTokenEpoch());
+        assertFalse(tokenEpochService.isCurrent("username", 0));
+        assertTrue(tokenEpochService.isCurrent("username", 1));
+    }
+
+    @Test
+    public void whenUserRenamed_thenPreviousUsernameRejectedImmediately() {
+        when(userRepository.findTokenEpochByUsername("old")).thenReturn(Optional.of(0), Optional.empty());
+
+        assertTrue(tokenEpochService.isCurrent("old", 0));
+
+        tokenEpochService.revokeTokens(new StudentEntity().setUsername("new"), "old");
+
+        assertFalse(tokenEpochService.isCurrent("old", 0));
+    }
+}
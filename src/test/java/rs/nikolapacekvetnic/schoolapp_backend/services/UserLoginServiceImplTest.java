@@ -7,44 +7,54 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.util.ReflectionTestUtils;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserCredentialsDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserLoginDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.EUserRole;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.UserEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
-import rs.nikolapacekvetnic.schoolapp_backend.utils.Encryption;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.PasswordHashingService;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class UserLoginServiceImplTest {
 
     @Mock private UserRepository userRepository;
+    @Mock private PasswordHashingService passwordHashingService;
     @InjectMocks private UserLoginServiceImpl userLoginService;
 
     @Test
     public void whenUserIsAuthorizedAsRole_thenReturnsTrue() {
-        // mock authentication and security context
-        Authentication authentication = mock(Authentication.class);
-        when(authentication.getName()).thenReturn("username");
+        Authentication authentication = new UsernamePasswordAuthenticationToken("username", null,
+                Collections.singletonList(new SimpleGrantedAuthority("ADMIN")));
         SecurityContext securityContext = mock(SecurityContext.class);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
 
-        // mock userRepository response
-        UserEntity userEntity = new UserEntity();
-        userEntity.setRole(EUserRole.ADMIN);
-        when(userRepository.findByUsername("username")).thenReturn(Optional.of(userEntity));
-
         assertTrue(userLoginService.isAuthorizedAs(EUserRole.ADMIN));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void whenUserHasOtherRole_thenReturnsFalse() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("username", null,
+                Collections.singletonList(new SimpleGrantedAuthority("TEACHER")));
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        assertFalse(userLoginService.isAuthorizedAs(EUserRole.ADMIN));
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -52,22 +62,57 @@ public class UserLoginServiceImplTest {
         // manually set the secret key
         ReflectionTestUtils.setField(userLoginService, "secretKey", "YourSecretKeyForTesting");
 
-        // create and setup UserEntity
-        UserEntity userEntity = new UserEntity();
-        userEntity.setUsername("username");
-        userEntity.setPassword(Encryption.getPassEncoded("password"));
-        userEntity.setRole(EUserRole.STUDENT);
-
-        List<UserEntity> userEntities = new ArrayList<>();
-        userEntities.add(userEntity);
+        // create and setup the stored credentials
+        UserCredentialsDto credentials = new UserCredentialsDto(1, "username", "hash", EUserRole.STUDENT, 0);
 
-        when(userRepository.findAll()).thenReturn(userEntities);
+        when(userRepository.findCredentialsByUsername("username")).thenReturn(Optional.of(credentials));
+        when(passwordHashingService.matches("password", "hash")).thenReturn(true);
 
         Optional<UserLoginDto> result = userLoginService.getUserLoginDto("username", "password");
 
         assertTrue(result.isPresent());
         assertEquals("username", result.get().getUsername());
         assertNotNull(result.get().getToken());
+        verify(userRepository, never()).findAll();
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(passwordHashingService, times(1)).matches(anyString(), anyString());
+    }
+
+    @Test
+    public void whenUsernameDiffersInCase_thenLooksUpNormalizedUsername() {
+        ReflectionTestUtils.setField(userLoginService, "secretKey", "YourSecretKeyForTesting");
+
+        UserCredentialsDto credentials = new UserCredentialsDto(1, "username", "hash", EUserRole.STUDENT, 0);
+
+        when(userRepository.findCredentialsByUsername("username")).thenReturn(Optional.of(credentials));
+        when(passwordHashingService.matches("password", "hash")).thenReturn(true);
+
+        Optional<UserLoginDto> result = userLoginService.getUserLoginDto(" UserName ", "password");
+
+        assertTrue(result.isPresent());
+        assertEquals("username", result.get().getUsername());
+    }
+
+    @Test
+    public void whenUnknownUser_thenReturnsEmptyWithSingleLookup() {
+        when(userRepository.findCredentialsByUsername("nobody")).thenReturn(Optional.empty());
+
+        Optional<UserLoginDto> result = userLoginService.getUserLoginDto("nobody", "password");
+
+        assertFalse(result.isPresent());
+        verify(userRepository, times(1)).findCredentialsByUsername("nobody");
+        verify(userRepository, never()).findAll();
+        verify(passwordHashingService, times(1)).matches(eq("password"), anyString());
+    }
+
+    @Test
+    public void whenWrongPassword_thenReturnsEmpty() {
+        UserCredentialsDto credentials = new UserCredentialsDto(1, "username", "hash", EUserRole.STUDENT, 0);
+
+        when(userRepository.findCredentialsByUsername("username")).thenReturn(Optional.of(credentials));
+        when(passwordHashingService.matches("wrong-password", "hash")).thenReturn(false);
+
+        assertFalse(userLoginService.getUserLoginDto("username", "wrong-password").isPresent());
     }
 
     @Test
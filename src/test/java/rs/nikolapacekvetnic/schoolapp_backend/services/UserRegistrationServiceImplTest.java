@@ -15,21 +15,40 @@ import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.TeacherEntity;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.AdminRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.StudentRegisterDto;
 import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.TeacherRegisterDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.dto.UserImportResultDto;
+import rs.nikolapacekvetnic.schoolapp_backend.domain.entities.StudentEntity;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.ParentRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.repositories.StudentRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.TeacherRepository;
 import rs.nikolapacekvetnic.schoolapp_backend.repositories.UserRepository;
+import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.PasswordHashingService;
 import rs.nikolapacekvetnic.schoolapp_backend.services.interfaces.UserLoginService;
 import rs.nikolapacekvetnic.schoolapp_backend.utils.UserCustomValidator;
 
+import javax.validation.Validation;
+import javax.validation.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class UserRegistrationServiceImplTest {
 
     @Mock private TeacherRepository teacherRepository;
+    @Mock private StudentRepository studentRepository;
+    @Mock private ParentRepository parentRepository;
     @Mock private UserRepository userRepository;
+    @Mock private PasswordHashingService passwordHashingService;
     @Mock private UserLoginService userLoginService;
     @Mock private UserCustomValidator userValidator;
     @InjectMocks private UserRegistrationServiceImpl userRegistrationService;
@@ -80,5 +99,87 @@ public class UserRegistrationServiceImplTest {
 
         assertThrows(UnauthorizedException.class, () -> userRegistrationService.addNewStudent(studentDto, bindingResult));
     }
-}
 
+    private UserRegistrationServiceImpl importingService() {
+        return new UserRegistrationServiceImpl(null, parentRepository, studentRepository, teacherRepository, userRepository,
+                passwordHashingService, userLoginService, userValidator, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private static InputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\r\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenImportStudents_thenReportsRowErrorsAndSavesValidRowsInOneBatch() throws IOException {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Collections.singletonList("taken1"));
+        when(studentRepository.findExistingJmbgs(anyCollection())).thenReturn(Collections.emptyList());
+        when(passwordHashingService.encodeAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserImportResultDto result = importingService().importUsers(EUserRole.STUDENT, csv(
+                "username,password,firstName,lastName,jmbg",
+                "student1,secret1,Mila,Jovic,0101005710012",
+                "student2,secret2,\"Ana, Marija\",Petrovic,0202005715018",
+                "taken1,secret3,Ivan,Ilic,0303005710024",
+                "student4,secret4,Luka,Lukic,12345",
+                "student1,secret5,Nina,Nikolic,0404005715030",
+                ""));
+
+        assertEquals(Integer.valueOf(5), result.getRows());
+        assertEquals(Integer.valueOf(2), result.getCreated());
+        assertEquals(3, result.getErrors().size());
+        assertEquals(Integer.valueOf(4), result.getErrors().get(0).getRow());
+        assertEquals("Username is already taken.", result.getErrors().get(0).getMessage());
+        assertTrue(result.getErrors().get(1).getMessage().contains("Personal ID number"));
+        assertEquals("Username is repeated in the file.", result.getErrors().get(2).getMessage());
+
+        verify(passwordHashingService, times(1)).encodeAll(Arrays.asList("secret1", "secret2"));
+        verify(passwordHashingService, never()).encode(anyString());
+        verify(userRepository, times(1)).saveAll(argThat(users -> {
+            List<StudentEntity> students = (List<StudentEntity>) (List<?>) users;
+            return students.size() == 2 && "Ana, Marija".equals(students.get(1).getFirstName());
+        }));
+        verify(studentRepository, never()).findByJmbg(anyString());
+    }
+
+    @Test
+    public void whenImportCaseVariantUsernames_thenTreatThemAsDuplicates() throws IOException {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Collections.singletonList("taken1"));
+        when(teacherRepository.findExistingEmails(anyCollection())).thenReturn(Collections.emptyList());
+        when(passwordHashingService.encodeAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserImportResultDto result = importingService().importUsers(EUserRole.TEACHER, csv(
+                "username,password,firstName,lastName,email",
+                "Teacher1,secret1,Mila,Jovic,mila@school.rs",
+                " teacher1 ,secret2,Ana,Petrovic,ana@school.rs",
+                "TAKEN1,secret3,Ivan,Ilic,ivan@school.rs"));
+
+        assertEquals(Integer.valueOf(1), result.getCreated());
+        assertEquals(2, result.getErrors().size());
+        assertEquals("Username is repeated in the file.", result.getErrors().get(0).getMessage());
+        assertEquals("Username is already taken.", result.getErrors().get(1).getMessage());
+
+        verify(userRepository, times(1)).findExistingUsernames(argThat(usernames ->
+                usernames.size() == 2 && usernames.containsAll(Arrays.asList("teacher1", "taken1"))));
+        verify(passwordHashingService, times(1)).encodeAll(Collections.singletonList("secret1"));
+    }
+
+    @Test
+    public void whenImportWithoutRequiredColumn_thenThrowValidationException() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> importingService().importUsers(EUserRole.TEACHER, csv(
+                "username,password,firstName,lastName",
+                "teacher1,secret1,Mila,Jovic")));
+        verifyNoInteractions(userRepository, passwordHashingService);
+    }
+
+    @Test
+    public void whenImportUnauthorized_thenThrowUnauthorizedException() {
+        when(userLoginService.isAuthorizedAs(EUserRole.ADMIN)).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> importingService().importUsers(EUserRole.PARENT, csv("username")));
+    }
+}
@@ -0,0 +1,62 @@
+package rs.nikolapacekvetnic.schoolapp_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+
+    @Test
+    public void whenEntryNotExpired_thenReturnsValue() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+
+        cache.put("key", "value", 2_000L);
+
+        assertEquals("value", cache.get("key"));
+    }
+
+    @Test
+    public void whenEntryExpired_thenReturnsNullAndEvicts() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+
+        cache.put("key", "value", 2_000L);
+        now.set(2_000L);
+
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void whenAlreadyExpired_thenNotStored() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+
+        cache.put("key", "value", 500L);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void whenFull_thenSizeStaysBounded() {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(10, now::get);
+
+        for (int i = 0; i < 100; i++)
+            cache.put(i, i, 5_000L);
+
+        assertTrue(cache.size() <= 10);
+        assertEquals(Integer.valueOf(99), cache.get(99));
+    }
+
+    @Test
+    public void whenInvalidated_thenReturnsNull() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, now::get);
+
+        cache.put("key", "value", 2_000L);
+        cache.invalidate("key");
+
+        assertNull(cache.get("key"));
+    }
+}